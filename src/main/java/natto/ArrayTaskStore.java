@@ -0,0 +1,246 @@
+package natto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Default {@link TaskStore}, keeping every task on the heap in an array of slots.
+ *
+ * <p>Removing a task only clears its slot, so later tasks are not shifted. While some slots are clear,
+ * a Fenwick tree counting the tasks in each range of slots turns a position into a slot and back in
+ * O(log n); once a quarter of the slots are clear, the tasks are moved together again, which costs O(1)
+ * per removal on average. A list with nothing removed is read straight from its slots.
+ *
+ * <p>The keys are kept in a parallel array. Looking a task up by key goes through a {@link KeySlotMap},
+ * built on the first lookup, which finds its slot in O(1).
+ */
+class ArrayTaskStore implements TaskStore {
+    private Task[] slots;
+    private long[] keys;
+    /** Number of slots in use, including cleared ones. */
+    private int used;
+    private int removedCount;
+    /** Fenwick tree over the slots, counting the tasks still in them; null while none is cleared. */
+    private int[] taskCounts;
+    private KeySlotMap keySlots;
+    private long nextKey = 1;
+    /** Last position turned into a slot, so that reading the list in order steps along the slots. */
+    private int lastIndex = -1;
+    private int lastSlot;
+
+    ArrayTaskStore() {
+        this(List.of());
+    }
+
+    ArrayTaskStore(List<Task> loaded) {
+        int capacity = Math.max(16, loaded.size());
+        slots = loaded.toArray(new Task[capacity]);
+        keys = new long[capacity];
+        used = loaded.size();
+        for (int i = 0; i < used; i++) {
+            keys[i] = nextKey++;
+        }
+    }
+
+    @Override
+    public int size() {
+        return used - removedCount;
+    }
+
+    @Override
+    public Task get(int index) {
+        return slots[slotOf(index)];
+    }
+
+    @Override
+    public void set(int index, Task task) {
+        slots[slotOf(index)] = task;
+    }
+
+    @Override
+    public long add(Task task) {
+        if (used == slots.length) {
+            int capacity = used * 2;
+            slots = Arrays.copyOf(slots, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            if (taskCounts != null) {
+                taskCounts = Arrays.copyOf(taskCounts, capacity + 1);
+            }
+        }
+        slots[used] = task;
+        keys[used] = nextKey;
+        if (taskCounts != null) {
+            // The new node covers the slots (n - lowbit(n), n], all but the last of which are already counted.
+            int n = used + 1;
+            taskCounts[n] = 1 + countBefore(n - 1) - countBefore(n - (n & -n));
+        }
+        if (keySlots != null) {
+            keySlots.put(nextKey, used);
+        }
+        used++;
+        return nextKey++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        int slot = slotOf(index);
+        Task removed = slots[slot];
+        lastIndex = -1;
+        if (keySlots != null) {
+            keySlots.remove(keys[slot]);
+        }
+        if (slot == used - 1) {
+            // Nodes of the tree only cover the slots up to their own, so dropping the last slot leaves it valid.
+            used--;
+        } else {
+            if (taskCounts == null) {
+                buildTaskCounts();
+            }
+            for (int n = slot + 1; n <= used; n += n & -n) {
+                taskCounts[n]--;
+            }
+            removedCount++;
+        }
+        slots[slot] = null;
+        if (removedCount * 4 > used) {
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public long keyAt(int index) {
+        return keys[slotOf(index)];
+    }
+
+    @Override
+    public int indexOfKey(long key) {
+        int slot = keySlots().get(key);
+        if (slot < 0 || removedCount == 0) {
+            return slot;
+        }
+        return countBefore(slot);
+    }
+
+    @Override
+    public Task getByKey(long key) {
+        int slot = keySlots().get(key);
+        return slot < 0 ? null : slots[slot];
+    }
+
+    @Override
+    public long nextKey() {
+        return nextKey;
+    }
+
+    @Override
+    public void restoreKeys(long[] restored, long next) {
+        compact();
+        System.arraycopy(restored, 0, keys, 0, restored.length);
+        nextKey = next;
+        keySlots = null;
+    }
+
+    /**
+     * Returns the tasks as a list of their own, for a store that is not used afterwards.
+     *
+     * @return The tasks, in list order.
+     */
+    List<Task> asList() {
+        compact();
+        return new ArrayList<>(Arrays.asList(slots).subList(0, used));
+    }
+
+    /** Returns the slot holding the task at the given position. */
+    private int slotOf(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        if (removedCount == 0) {
+            return index;
+        }
+        if (lastIndex >= 0 && (index == lastIndex || index == lastIndex + 1)) {
+            int slot = lastSlot;
+            if (index != lastIndex) {
+                do {
+                    slot++;
+                } while (slots[slot] == null);
+            }
+            lastIndex = index;
+            lastSlot = slot;
+            return slot;
+        }
+        // Descend the tree for the last node with at most index tasks up to it; the task is in the slot after.
+        int node = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(used); step > 0; step >>= 1) {
+            int next = node + step;
+            if (next <= used && taskCounts[next] <= remaining) {
+                node = next;
+                remaining -= taskCounts[next];
+            }
+        }
+        lastIndex = index;
+        lastSlot = node;
+        return node;
+    }
+
+    /** Returns the number of tasks in the slots before the given one. */
+    private int countBefore(int slot) {
+        int count = 0;
+        for (int n = slot; n > 0; n -= n & -n) {
+            count += taskCounts[n];
+        }
+        return count;
+    }
+
+    private void buildTaskCounts() {
+        taskCounts = new int[slots.length + 1];
+        for (int n = 1; n <= used; n++) {
+            taskCounts[n] += slots[n - 1] != null ? 1 : 0;
+            int parent = n + (n & -n);
+            if (parent <= used) {
+                taskCounts[parent] += taskCounts[n];
+            }
+        }
+    }
+
+    private KeySlotMap keySlots() {
+        if (keySlots == null) {
+            keySlots = new KeySlotMap(size());
+            for (int slot = 0; slot < used; slot++) {
+                if (slots[slot] != null) {
+                    keySlots.put(keys[slot], slot);
+                }
+            }
+        }
+        return keySlots;
+    }
+
+    /** Moves the tasks and their keys into the first slots, so positions are slots again. */
+    private void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        int live = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (slots[slot] != null) {
+                slots[live] = slots[slot];
+                keys[live] = keys[slot];
+                live++;
+            }
+        }
+        Arrays.fill(slots, live, used, null);
+        used = live;
+        removedCount = 0;
+        taskCounts = null;
+        lastIndex = -1;
+        if (keySlots != null) {
+            keySlots.clear();
+            for (int slot = 0; slot < used; slot++) {
+                keySlots.put(keys[slot], slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package natto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes task snapshots in a compact binary format.
+ *
+ * <p>Layout, all numbers big-endian:
+ * <pre>
+ * header: magic "NATB" | version (1 byte) | journal segment (8 bytes) | task count (4 bytes)
+ * keys:   next key (8 bytes) | run count (4 bytes) | runs: first key (8 bytes) | length (4 bytes)
+ * task:   type tag (1 byte: T, D, E or C) | done (1 byte) | name
+ *         D: by (8 bytes)
+ *         E: from (8 bytes) | to (8 bytes)
+ *         C: phone | email | address
+ * </pre>
+ * Strings are a 4-byte byte length followed by UTF-8 bytes, so descriptions may contain any character.
+ * Date-times are stored as epoch seconds, read back as UTC. The task keys, which are shown as task IDs,
+ * are stored as runs of consecutive keys; version 1 files have no keys block, and their tasks are
+ * numbered from 1.
+ */
+class BinaryTaskCodec {
+    static final byte[] MAGIC = {'N', 'A', 'T', 'B'};
+    static final byte VERSION = 2;
+    /** The first version, which has no keys block. */
+    static final byte VERSION_WITHOUT_KEYS = 1;
+    static final int HEADER_LENGTH = MAGIC.length + 1 + Long.BYTES + Integer.BYTES;
+
+    static final byte TAG_TODO = 'T';
+    static final byte TAG_DEADLINE = 'D';
+    static final byte TAG_EVENT = 'E';
+    static final byte TAG_CONTACT = 'C';
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Strings up to this many bytes are decoded from a reused buffer instead of a fresh array. */
+    private static final int SCRATCH_SIZE = 4096;
+
+    /**
+     * Returns whether the file starts with the binary snapshot magic.
+     *
+     * @param file File to check.
+     * @return True if the file is a binary snapshot.
+     * @throws IOException If the file cannot be read.
+     */
+    static boolean isBinary(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < MAGIC.length) {
+            return false;
+        }
+        byte[] start = new byte[MAGIC.length];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read = in.readNBytes(start, 0, start.length);
+            return read == MAGIC.length && Arrays.equals(start, MAGIC);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the tasks in a store, with their keys. A {@link ColumnarTaskStore} writes
+     * its rows itself, without building their tasks.
+     *
+     * @param out Stream to write to; it is flushed but not closed.
+     * @param store Tasks to write.
+     * @param seq Last journal segment contained in the tasks.
+     * @throws IOException If the stream cannot be written.
+     */
+    static void write(OutputStream out, TaskStore store, long seq) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(seq);
+        data.writeInt(store.size());
+        TaskKeys.of(store).write(data);
+        ColumnarTaskStore columns = store instanceof ColumnarTaskStore ? (ColumnarTaskStore) store : null;
+        for (int i = 0; i < store.size(); i++) {
+            if (columns != null) {
+                columns.writeBinary(i, data);
+            } else {
+                writeTask(data, store.get(i));
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a snapshot, appending its tasks to the given list.
+     *
+     * @param file Snapshot file to read.
+     * @param tasks List to append the tasks to.
+     * @return Last journal segment contained in the snapshot.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    static long read(Path file, List<Task> tasks) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            byte version = readVersion(in);
+            long seq = in.readLong();
+            int count = in.readInt();
+            if (version != VERSION_WITHOUT_KEYS) {
+                TaskKeys.read(in, count);
+            }
+            if (tasks instanceof ArrayList) {
+                ((ArrayList<Task>) tasks).ensureCapacity(tasks.size() + count);
+            }
+            byte[] scratch = new byte[SCRATCH_SIZE];
+            for (int i = 0; i < count; i++) {
+                tasks.add(readTask(in, scratch));
+            }
+            return seq;
+        }
+    }
+
+    /**
+     * Reads only the journal segment number from a snapshot header.
+     *
+     * @param file Snapshot file to read.
+     * @return Last journal segment contained in the snapshot.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    static long readSeq(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            readVersion(in);
+            return in.readLong();
+        }
+    }
+
+    /**
+     * Reads only the task keys from a snapshot, which come before the tasks.
+     *
+     * @param file Snapshot file to read.
+     * @return The keys, or null if the snapshot was written without them.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    static TaskKeys readKeys(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (readVersion(in) == VERSION_WITHOUT_KEYS) {
+                return null;
+            }
+            in.readLong();
+            return TaskKeys.read(in, in.readInt());
+        }
+    }
+
+    /** Reads the magic and version, and returns the version. */
+    private static byte readVersion(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a binary task file");
+        }
+        byte version = in.readByte();
+        if (version != VERSION && version != VERSION_WITHOUT_KEYS) {
+            throw new IOException("Unsupported binary task file version: " + version);
+        }
+        return version;
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        if (task instanceof Todo) {
+            writeCommon(out, TAG_TODO, task);
+        } else if (task instanceof Deadline) {
+            writeCommon(out, TAG_DEADLINE, task);
+            out.writeLong(toEpochSecond(((Deadline) task).by));
+        } else if (task instanceof Event) {
+            Event e = (Event) task;
+            writeCommon(out, TAG_EVENT, task);
+            out.writeLong(toEpochSecond(e.from));
+            out.writeLong(toEpochSecond(e.to));
+        } else if (task instanceof Contact) {
+            Contact c = (Contact) task;
+            writeCommon(out, TAG_CONTACT, task);
+            writeString(out, c.getPhone());
+            writeString(out, c.getEmail());
+            writeString(out, c.getAddress());
+        } else {
+            throw new IllegalArgumentException("Unknown task type");
+        }
+    }
+
+    private static void writeCommon(DataOutputStream out, byte tag, Task task) throws IOException {
+        out.writeByte(tag);
+        out.writeByte(task.isDone() ? 1 : 0);
+        writeString(out, task.getName());
+    }
+
+    private static Task readTask(DataInputStream in, byte[] scratch) throws IOException {
+        byte tag = in.readByte();
+        boolean isDone = in.readByte() != 0;
+        String name = readString(in, scratch);
+
+        Task task;
+        switch (tag) {
+        case TAG_TODO:
+            task = new Todo(name);
+            break;
+        case TAG_DEADLINE:
+            task = new Deadline(name, fromEpochSecond(in.readLong()));
+            break;
+        case TAG_EVENT:
+            LocalDateTime from = fromEpochSecond(in.readLong());
+            task = new Event(name, from, fromEpochSecond(in.readLong()));
+            break;
+        case TAG_CONTACT:
+            task = new Contact(name, readString(in, scratch), readString(in, scratch), readString(in, scratch));
+            break;
+        default:
+            throw new IOException("Unknown task type tag: " + tag);
+        }
+
+        if (isDone) {
+            task.mark();
+        }
+        return task;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        writeBytes(out, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes a string that is already encoded as UTF-8.
+     *
+     * @param out Stream to write to.
+     * @param utf8 Array holding the encoded string.
+     * @param from Index of its first byte.
+     * @param length Number of bytes.
+     * @throws IOException If the stream cannot be written.
+     */
+    static void writeBytes(DataOutputStream out, byte[] utf8, int from, int length) throws IOException {
+        out.writeInt(length);
+        out.write(utf8, from, length);
+    }
+
+    private static String readString(DataInputStream in, byte[] scratch) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupted string length: " + length);
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        in.readFully(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,328 @@
+package natto;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link TaskStore} that keeps tasks as columns of primitives instead of as objects.
+ *
+ * <p>Each task is a row: a type byte, a done bit, its dates as epoch seconds, and the offset and
+ * length of its text in a {@link TextArena}, on or off the Java heap. A task object is only created
+ * when one is asked for, as a short-lived view of its row; changing it has no effect until it is
+ * written back with {@link #set(int, Task)}. This takes a fraction of the memory of a list of task objects, each with
+ * its own strings and date objects.
+ *
+ * <p>A contact's text is its name, phone, email and address separated by NUL characters, so the
+ * fixed columns stay the same for every type.
+ *
+ * <p>Snapshots are written straight from the columns by {@link #toFileLine(int)} and
+ * {@link #writeBinary(int, DataOutputStream)}, so saving the list does not build its tasks either.
+ */
+class ColumnarTaskStore implements TaskStore {
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+    private static final byte CONTACT = 'C';
+    private static final char FIELD_SEPARATOR = '\0';
+
+    private int size;
+    private byte[] types;
+    /** Done flags, one bit per row. */
+    private long[] doneBits;
+    /** Due time of a deadline, or start time of an event. */
+    private long[] starts;
+    /** End time of an event. */
+    private long[] ends;
+    private int[] textOffsets;
+    private int[] textLengths;
+    private long[] keys;
+    private long nextKey = 1;
+    private TextArena arena;
+
+    ColumnarTaskStore() {
+        this(List.of(), false);
+    }
+
+    /**
+     * Creates a store holding the given tasks.
+     *
+     * @param loaded Tasks, in list order.
+     * @param isOffHeap Whether task text is kept in a {@link DirectTextArena} outside the Java heap.
+     */
+    ColumnarTaskStore(List<Task> loaded, boolean isOffHeap) {
+        this(loaded.size(), loaded.size() * 16L, isOffHeap);
+        for (Task task : loaded) {
+            add(task);
+        }
+    }
+
+    /**
+     * Creates an empty store with room for the given number of tasks and bytes of text.
+     *
+     * @param rows Tasks to make room for.
+     * @param textCapacity Bytes of text to make room for.
+     * @param isOffHeap Whether task text is kept in a {@link DirectTextArena} outside the Java heap.
+     */
+    ColumnarTaskStore(int rows, long textCapacity, boolean isOffHeap) {
+        int capacity = Math.max(16, rows);
+        types = new byte[capacity];
+        doneBits = new long[(capacity + 63) >>> 6];
+        starts = new long[capacity];
+        ends = new long[capacity];
+        textOffsets = new int[capacity];
+        textLengths = new int[capacity];
+        keys = new long[capacity];
+        arena = isOffHeap ? new DirectTextArena(textCapacity) : new HeapTextArena(textCapacity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        String text = arena.get(textOffsets[index], textLengths[index]);
+        Task task;
+        switch (types[index]) {
+        case DEADLINE:
+            task = new Deadline(text, BinaryTaskCodec.fromEpochSecond(starts[index]));
+            break;
+        case EVENT:
+            task = new Event(text, BinaryTaskCodec.fromEpochSecond(starts[index]),
+                    BinaryTaskCodec.fromEpochSecond(ends[index]));
+            break;
+        case CONTACT:
+            String[] fields = text.split(String.valueOf(FIELD_SEPARATOR), -1);
+            task = new Contact(fields[0], fields[1], fields[2], fields[3]);
+            break;
+        default:
+            task = new Todo(text);
+            break;
+        }
+        if (isDone(index)) {
+            task.mark();
+        }
+        return task;
+    }
+
+    /** Marking or unmarking a task rewrites only its columns; its text is reused when unchanged. */
+    @Override
+    public void set(int index, Task task) {
+        checkIndex(index);
+        byte[] utf8 = writeColumns(index, task);
+        if (!arena.matches(textOffsets[index], textLengths[index], utf8)) {
+            arena.release(textOffsets[index], textLengths[index]);
+            textOffsets[index] = arena.add(utf8);
+            textLengths[index] = utf8.length;
+            compactIfNeeded();
+        }
+    }
+
+    @Override
+    public long add(Task task) {
+        if (size == types.length) {
+            grow();
+        }
+        keys[size] = nextKey;
+        byte[] utf8 = writeColumns(size, task);
+        textOffsets[size] = arena.add(utf8);
+        textLengths[size] = utf8.length;
+        size++;
+        return nextKey++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        arena.release(textOffsets[index], textLengths[index]);
+
+        int tail = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, tail);
+        System.arraycopy(starts, index + 1, starts, index, tail);
+        System.arraycopy(ends, index + 1, ends, index, tail);
+        System.arraycopy(textOffsets, index + 1, textOffsets, index, tail);
+        System.arraycopy(textLengths, index + 1, textLengths, index, tail);
+        System.arraycopy(keys, index + 1, keys, index, tail);
+        removeDoneBit(index);
+        size--;
+
+        compactIfNeeded();
+        return removed;
+    }
+
+    @Override
+    public long keyAt(int index) {
+        return keys[checkIndex(index)];
+    }
+
+    @Override
+    public int indexOfKey(long key) {
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        return pos >= 0 ? pos : -1;
+    }
+
+    @Override
+    public long nextKey() {
+        return nextKey;
+    }
+
+    @Override
+    public void restoreKeys(long[] restored, long next) {
+        System.arraycopy(restored, 0, keys, 0, restored.length);
+        nextKey = next;
+    }
+
+    /**
+     * Returns the task at the given position as a line of a text snapshot, in the form
+     * {@link Storage#taskToFile(Task)} gives, without building the task.
+     *
+     * @param index Zero-based position.
+     * @return The line, without a line terminator.
+     */
+    String toFileLine(int index) {
+        checkIndex(index);
+        String done = isDone(index) ? "1" : "0";
+        String text = arena.get(textOffsets[index], textLengths[index]);
+        switch (types[index]) {
+        case DEADLINE:
+            return "D | " + done + " | " + text + " | " + BinaryTaskCodec.fromEpochSecond(starts[index]);
+        case EVENT:
+            return "E | " + done + " | " + text + " | " + BinaryTaskCodec.fromEpochSecond(starts[index])
+                    + "-" + BinaryTaskCodec.fromEpochSecond(ends[index]);
+        case CONTACT:
+            return "C | " + done + " | " + text.replace(String.valueOf(FIELD_SEPARATOR), " | ");
+        default:
+            return "T | " + done + " | " + text;
+        }
+    }
+
+    /**
+     * Writes the task at the given position as {@link BinaryTaskCodec} encodes a task, without building
+     * it. The type bytes and epoch-second dates of the columns are the codec's own.
+     *
+     * @param index Zero-based position.
+     * @param out Stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    void writeBinary(int index, DataOutputStream out) throws IOException {
+        checkIndex(index);
+        out.writeByte(types[index]);
+        out.writeByte(isDone(index) ? 1 : 0);
+        byte[] text = arena.bytes(textOffsets[index], textLengths[index]);
+        if (types[index] != CONTACT) {
+            BinaryTaskCodec.writeBytes(out, text, 0, text.length);
+        }
+        switch (types[index]) {
+        case DEADLINE:
+            out.writeLong(starts[index]);
+            break;
+        case EVENT:
+            out.writeLong(starts[index]);
+            out.writeLong(ends[index]);
+            break;
+        case CONTACT:
+            int from = 0;
+            for (int i = 0; i <= text.length; i++) {
+                if (i == text.length || text[i] == FIELD_SEPARATOR) {
+                    BinaryTaskCodec.writeBytes(out, text, from, i - from);
+                    from = i + 1;
+                }
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Fills in the fixed columns of a row from a task.
+     *
+     * @return The task's text, encoded for the arena.
+     */
+    private byte[] writeColumns(int index, Task task) {
+        String text = task.getName();
+        if (task instanceof Deadline) {
+            types[index] = DEADLINE;
+            starts[index] = BinaryTaskCodec.toEpochSecond(((Deadline) task).by);
+        } else if (task instanceof Event) {
+            types[index] = EVENT;
+            starts[index] = BinaryTaskCodec.toEpochSecond(((Event) task).from);
+            ends[index] = BinaryTaskCodec.toEpochSecond(((Event) task).to);
+        } else if (task instanceof Contact) {
+            Contact contact = (Contact) task;
+            types[index] = CONTACT;
+            text = String.join(String.valueOf(FIELD_SEPARATOR), contact.getName(), contact.getPhone(),
+                    contact.getEmail(), contact.getAddress() == null ? "" : contact.getAddress());
+        } else if (task instanceof Todo) {
+            types[index] = TODO;
+        } else {
+            throw new IllegalArgumentException("Unknown task type: " + task.getClass().getSimpleName());
+        }
+
+        setDone(index, task.isDone());
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private boolean isDone(int index) {
+        return (doneBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void setDone(int index, boolean isDone) {
+        if (isDone) {
+            doneBits[index >>> 6] |= 1L << index;
+        } else {
+            doneBits[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /** Deletes one bit from the done flags, moving every later bit down by one. */
+    private void removeDoneBit(int index) {
+        int word = index >>> 6;
+        long below = doneBits[word] & ((1L << index) - 1);
+        long above = (doneBits[word] >>> 1) & -(1L << index);
+        doneBits[word] = below | above;
+        int lastWord = (size - 1) >>> 6;
+        for (int w = word; w < lastWord; w++) {
+            doneBits[w] |= doneBits[w + 1] << 63;
+            doneBits[w + 1] >>>= 1;
+        }
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        doneBits = Arrays.copyOf(doneBits, (capacity + 63) >>> 6);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        textOffsets = Arrays.copyOf(textOffsets, capacity);
+        textLengths = Arrays.copyOf(textLengths, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    /**
+     * Defragments the arena by copying the live text into a fresh one, once more than half of it is
+     * garbage that has not been reused.
+     */
+    private void compactIfNeeded() {
+        if (arena.garbage() * 2 <= arena.used()) {
+            return;
+        }
+        TextArena compacted = arena.newArena(arena.used() - arena.garbage());
+        for (int i = 0; i < size; i++) {
+            textOffsets[i] = compacted.add(arena.bytes(textOffsets[i], textLengths[i]));
+        }
+        arena = compacted;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return index;
+    }
+}
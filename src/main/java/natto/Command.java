@@ -0,0 +1,28 @@
+package natto;
+
+/**
+ * A user command, parsed once by its {@link CommandHandler} and ready to run.
+ *
+ * <p>A command holds everything it needs to run, so it can be run later, run as part of a batch,
+ * or run again on another task list.
+ */
+public interface Command {
+    /**
+     * Runs the command, printing its result and journalling any change it makes.
+     *
+     * @param tasks Task list to work on.
+     * @param ui Ui to print the result to.
+     * @param storage Storage to journal changes to.
+     * @throws NattoException If the command cannot be carried out.
+     */
+    void execute(TaskList tasks, Ui ui, Storage storage) throws NattoException;
+
+    /**
+     * Returns whether the application should exit after this command.
+     *
+     * @return False unless overridden.
+     */
+    default boolean isExit() {
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package natto;
+
+/**
+ * Turns the input of one command word into a {@link Command}.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Parses a command.
+     *
+     * @param tokens Tokenized user input, starting with the command word.
+     * @param tasks Current task list, for commands that refer to a task by position or ID.
+     * @return The parsed command.
+     * @throws NattoException If the input is not a valid command.
+     */
+    Command parse(CommandTokenizer tokens, TaskList tasks) throws NattoException;
+}
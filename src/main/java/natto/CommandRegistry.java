@@ -0,0 +1,62 @@
+package natto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps command words to the handlers that parse them.
+ *
+ * <p>Input is tokenized once and handed to the handler for its command word, so looking up a command
+ * costs one hash lookup however many commands there are. Plugins add commands with
+ * {@link #register(String, CommandHandler)}. Everything a handler works with, from the tokenizer to
+ * the tasks and {@link NattoException}, is public, so a plugin can live in its own package.
+ */
+public class CommandRegistry {
+    private static final String UNKNOWN_COMMAND = "Please use a keyword like: todo, deadline, event, list";
+
+    private final Map<String, CommandHandler> handlers = new HashMap<>();
+
+    /**
+     * Creates a registry holding the built-in commands.
+     *
+     * @return The registry.
+     */
+    public static CommandRegistry withBuiltIns() {
+        CommandRegistry registry = new CommandRegistry();
+        Commands.registerBuiltIns(registry);
+        return registry;
+    }
+
+    /**
+     * Adds a command.
+     *
+     * @param word Command word, the first token of the input.
+     * @param handler Handler that parses the command.
+     * @throws IllegalArgumentException If the word is blank, contains whitespace, or is already registered.
+     */
+    public void register(String word, CommandHandler handler) {
+        if (word.isEmpty() || !word.equals(new CommandTokenizer(word).commandWord())) {
+            throw new IllegalArgumentException("Command word must be a single token: '" + word + "'");
+        }
+        if (handlers.putIfAbsent(word, handler) != null) {
+            throw new IllegalArgumentException("Command already registered: " + word);
+        }
+    }
+
+    /**
+     * Parses a line of user input into a command.
+     *
+     * @param input Full user input.
+     * @param tasks Current task list.
+     * @return The parsed command.
+     * @throws NattoException If the command word is unknown or the input is invalid.
+     */
+    public Command parse(String input, TaskList tasks) throws NattoException {
+        CommandTokenizer tokens = new CommandTokenizer(input);
+        CommandHandler handler = handlers.get(tokens.commandWord());
+        if (handler == null) {
+            throw new NattoException(UNKNOWN_COMMAND);
+        }
+        return handler.parse(tokens, tasks);
+    }
+}
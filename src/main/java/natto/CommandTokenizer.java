@@ -0,0 +1,231 @@
+package natto;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass, cursor-based tokenizer for a command line.
+ *
+ * <p>Construction walks the input once, recording where the command word ends, how many
+ * arguments follow it, and where each {@link Marker} first starts. Everything else is answered from
+ * those positions: no regular expressions are compiled and no intermediate arrays or strings are
+ * built, only the strings a caller asks for. Tokens are separated by whitespace, as
+ * {@link String#trim()} defines it.
+ *
+ * <p>A marker is recognised at the start of a token, and its value runs from just after the marker
+ * to the next marker of the same group, or to the end of the input. Command handlers, including
+ * those added by plugins, read their arguments from it.
+ */
+public final class CommandTokenizer {
+    /** Named fields of a command, such as the due date of a deadline. */
+    public enum Marker {
+        BY("/by", Group.DATE),
+        FROM("/from", Group.DATE),
+        TO("/to", Group.DATE),
+        PHONE("p/", Group.CONTACT),
+        EMAIL("e/", Group.CONTACT),
+        ADDRESS("a/", Group.CONTACT);
+
+        private static final Marker[] ALL = values();
+
+        private final String text;
+        private final Group group;
+
+        Marker(String text, Group group) {
+            this.text = text;
+            this.group = group;
+        }
+
+        public String text() {
+            return text;
+        }
+    }
+
+    /** Markers that delimit each other's values; markers of other groups are ordinary text. */
+    public enum Group {
+        DATE,
+        CONTACT
+    }
+
+    private final String input;
+    private final int start;
+    private final int end;
+    private final int commandEnd;
+    private final int argCount;
+    private final int[] markerStarts = new int[Marker.ALL.length];
+
+    /** Argument last returned by {@link #arg(int)} and where it starts, so walking them is linear. */
+    private int cursorArg = -1;
+    private int cursorStart;
+
+    /**
+     * Tokenizes a command line.
+     *
+     * @param input Full user input.
+     */
+    public CommandTokenizer(String input) {
+        this.input = input;
+        int i = skipSpace(0);
+        start = i;
+        i = skipToken(i);
+        commandEnd = i;
+
+        int count = 0;
+        int last = commandEnd;
+        Arrays.fill(markerStarts, -1);
+        for (i = skipSpace(i); i < input.length(); i = skipSpace(i)) {
+            recordMarker(i);
+            count++;
+            i = skipToken(i);
+            last = i;
+        }
+        argCount = count;
+        end = last;
+    }
+
+    private void recordMarker(int tokenStart) {
+        for (Marker marker : Marker.ALL) {
+            if (markerStarts[marker.ordinal()] < 0 && input.startsWith(marker.text, tokenStart)) {
+                markerStarts[marker.ordinal()] = tokenStart;
+                return;
+            }
+        }
+    }
+
+    private int skipSpace(int i) {
+        while (i < input.length() && input.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipToken(int i) {
+        while (i < input.length() && input.charAt(i) > ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /** Returns the first token, or an empty string for a blank line. */
+    public String commandWord() {
+        return input.substring(start, commandEnd);
+    }
+
+    /** Returns whether the command word is exactly the given word. */
+    public boolean isCommand(String word) {
+        return commandEnd - start == word.length() && input.startsWith(word, start);
+    }
+
+    /** Returns the number of tokens after the command word. */
+    public int argCount() {
+        return argCount;
+    }
+
+    /**
+     * Returns a token after the command word.
+     *
+     * @param n Zero-based position among the arguments.
+     * @return The token.
+     */
+    public String arg(int n) {
+        if (n < 0 || n >= argCount) {
+            throw new IndexOutOfBoundsException("Argument " + n + " out of " + argCount);
+        }
+        if (n < cursorArg || cursorArg < 0) {
+            cursorArg = 0;
+            cursorStart = skipSpace(commandEnd);
+        }
+        while (cursorArg < n) {
+            cursorStart = skipSpace(skipToken(cursorStart));
+            cursorArg++;
+        }
+        return input.substring(cursorStart, skipToken(cursorStart));
+    }
+
+    /** Returns whether any argument is exactly the given token. */
+    public boolean hasArg(String token) {
+        for (int i = skipSpace(commandEnd); i < end; i = skipSpace(skipToken(i))) {
+            if (skipToken(i) - i == token.length() && input.startsWith(token, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns everything after the command word, trimmed; empty if there is nothing. */
+    public String rest() {
+        return trimmed(commandEnd, end);
+    }
+
+    /**
+     * Returns the text between the command word and the first marker of a group, trimmed.
+     *
+     * @param group Markers that end the text.
+     * @return The text; everything after the command word if no such marker is present.
+     */
+    public String body(Group group) {
+        int stop = end;
+        for (Marker marker : Marker.ALL) {
+            int at = markerStarts[marker.ordinal()];
+            if (marker.group == group && at >= 0 && at < stop) {
+                stop = at;
+            }
+        }
+        return trimmed(commandEnd, stop);
+    }
+
+    /** Returns whether the marker appears at the start of any argument. */
+    public boolean has(Marker marker) {
+        return markerStarts[marker.ordinal()] >= 0;
+    }
+
+    /**
+     * Returns the value of a marker, trimmed.
+     *
+     * @param marker Marker to read.
+     * @return The value, possibly empty; null if the marker is not present.
+     */
+    public String value(Marker marker) {
+        int from = markerStarts[marker.ordinal()];
+        if (from < 0) {
+            return null;
+        }
+        int stop = end;
+        for (Marker other : Marker.ALL) {
+            int at = markerStarts[other.ordinal()];
+            if (other.group == marker.group && at > from && at < stop) {
+                stop = at;
+            }
+        }
+        return trimmed(from + marker.text.length(), stop);
+    }
+
+    private String trimmed(int from, int to) {
+        from = skipSpace(from);
+        while (to > from && input.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return from >= to ? "" : input.substring(from, to);
+    }
+
+    /**
+     * Returns whether text has the given shape, where {@code 'd'} in the shape stands for any digit
+     * and every other character stands for itself.
+     *
+     * @param text Text to check.
+     * @param shape Shape such as {@code "dddd-dd-dd"}.
+     * @return True if the text matches the shape exactly.
+     */
+    static boolean hasShape(String text, String shape) {
+        if (text.length() != shape.length()) {
+            return false;
+        }
+        for (int i = 0; i < shape.length(); i++) {
+            char c = text.charAt(i);
+            char s = shape.charAt(i);
+            if (s == 'd' ? c < '0' || c > '9' : c != s) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,297 @@
+package natto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The built-in commands, each a record holding its parsed arguments.
+ */
+final class Commands {
+    static final String IDS_FLAG = "--ids";
+    static final String PAGE_FLAG = "--page";
+    static final int PAGE_SIZE = 100;
+
+    private static final String CREATOR_NAME = "Kemango";
+    private static final String CREATOR_NUM = "8283 6964";
+    private static final String CREATOR_EMAIL = "e1398747@u.nus.edu";
+
+    private Commands() {
+    }
+
+    /**
+     * Registers the handler of every built-in command.
+     *
+     * @param registry Registry to add them to.
+     */
+    static void registerBuiltIns(CommandRegistry registry) {
+        registry.register("bye", (tokens, tasks) -> new Bye());
+        registry.register("list", Commands::parseList);
+        registry.register("mark", (tokens, tasks) -> new Mark(Parser.parseTaskIndex(tokens, tasks)));
+        registry.register("unmark", (tokens, tasks) -> new Unmark(Parser.parseTaskIndex(tokens, tasks)));
+        registry.register("delete", (tokens, tasks) -> new Delete(Parser.parseTaskIndex(tokens, tasks)));
+        registry.register("todo", (tokens, tasks) -> new Add(new Todo(Parser.parseTodo(tokens))));
+        registry.register("deadline", (tokens, tasks) -> new Add(Parser.parseDeadline(tokens)));
+        registry.register("event", (tokens, tasks) -> new Add(Parser.parseEvent(tokens)));
+        registry.register("contact", (tokens, tasks) -> new Add(Parser.parseContact(tokens)));
+        registry.register("find", (tokens, tasks) -> new Find(Parser.parseFind(tokens)));
+        registry.register("search", (tokens, tasks) ->
+                new Search(Parser.parseSearch(tokens), !Parser.isSearchAny(tokens)));
+        registry.register("due", (tokens, tasks) -> new Due(Parser.parseDate(tokens)));
+        registry.register("between", (tokens, tasks) -> {
+            LocalDate[] range = Parser.parseDateRange(tokens);
+            return new Between(range[0], range[1]);
+        });
+        registry.register("overlapping", (tokens, tasks) -> {
+            LocalDate[] range = Parser.parseDateRange(tokens);
+            return new Overlapping(range[0], range[1]);
+        });
+        registry.register("conflicts", Commands::parseConflicts);
+        registry.register("creator", Commands::parseCreator);
+        registry.register("import", (tokens, tasks) -> {
+            Path file = parseFile(tokens);
+            return new Import(file, ExchangeFormat.of(file));
+        });
+        registry.register("export", (tokens, tasks) -> {
+            Path file = parseFile(tokens);
+            return new Export(file, ExchangeFormat.of(file));
+        });
+    }
+
+    private static Command parseList(CommandTokenizer tokens, TaskList tasks) throws NattoException {
+        if (tokens.argCount() == 0) {
+            return new ListTasks(false, 0, ListTasks.ALL);
+        }
+        if (tokens.argCount() == 1 && tokens.arg(0).equals(IDS_FLAG)) {
+            return new ListTasks(true, 0, ListTasks.ALL);
+        }
+        if (tokens.argCount() == 1 && Character.isDigit(tokens.arg(0).charAt(0))) {
+            int[] range = Parser.parseRange(tokens.arg(0), tasks.size());
+            return new ListTasks(false, range[0], range[1]);
+        }
+        if (tokens.argCount() == 2 && tokens.arg(0).equals(PAGE_FLAG)) {
+            int pages = (tasks.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+            int page;
+            try {
+                page = Integer.parseInt(tokens.arg(1));
+            } catch (NumberFormatException e) {
+                throw new NattoException("Page must be a number.");
+            }
+            if (page < 1 || page > pages) {
+                throw new NattoException("No such page. The list has " + pages + (pages == 1 ? " page." : " pages."));
+            }
+            int from = (page - 1) * PAGE_SIZE;
+            return new ListTasks(false, from, Math.min(from + PAGE_SIZE, tasks.size()));
+        }
+        throw new NattoException("list keyword works alone, or as: list " + IDS_FLAG + ", list 200-400, list "
+                + PAGE_FLAG + " 3");
+    }
+
+    private static Command parseConflicts(CommandTokenizer tokens, TaskList tasks) throws NattoException {
+        if (tokens.argCount() == 0) {
+            return new Conflicts(-1);
+        }
+        int index = Parser.parseTaskIndex(tokens, tasks);
+        if (!(tasks.get(index) instanceof Event)) {
+            throw new NattoException("Only events can clash. Task " + (index + 1) + " is not an event.");
+        }
+        return new Conflicts(index);
+    }
+
+    private static Command parseCreator(CommandTokenizer tokens, TaskList tasks) throws NattoException {
+        if (tokens.argCount() != 0) {
+            throw new NattoException("contact keyword works alone");
+        }
+        return new Creator();
+    }
+
+    private static Path parseFile(CommandTokenizer tokens) throws NattoException {
+        String file = tokens.rest();
+        if (file.isEmpty()) {
+            throw new NattoException("Please provide a file. Example: " + tokens.commandWord() + " tasks.csv");
+        }
+        try {
+            return Paths.get(file);
+        } catch (IllegalArgumentException e) {
+            throw new NattoException("Invalid file name: " + file);
+        }
+    }
+
+    /** Saves everything and says goodbye. */
+    record Bye() implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) throws NattoException {
+            storage.flush();
+            ui.printGoodbye();
+        }
+
+        @Override
+        public boolean isExit() {
+            return true;
+        }
+    }
+
+    /** Shows all tasks, optionally with their IDs, or the tasks at some positions. */
+    record ListTasks(boolean isWithIds, int from, int to) implements Command {
+        /** Value of {@code to} that shows every task, however many there are by then. */
+        static final int ALL = -1;
+
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) {
+            if (isWithIds) {
+                ui.printListWithIds(tasks);
+            } else if (to == ALL) {
+                ui.printList(tasks.getAll());
+            } else {
+                ui.printListRange(tasks.getAll(), from, Math.min(to, tasks.size()));
+            }
+        }
+    }
+
+    /** Marks a task as done and journals the change. */
+    record Mark(int index) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) throws NattoException {
+            assert index >= 0 && index < tasks.size() : "Parser should return a valid index";
+            tasks.mark(index);
+            ui.printMark(tasks.getAll(), index);
+            storage.appendMark(index);
+        }
+    }
+
+    /** Marks a task as not done and journals the change. */
+    record Unmark(int index) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) throws NattoException {
+            tasks.unmark(index);
+            ui.printUnmark(tasks.getAll(), index);
+            storage.appendUnmark(index);
+        }
+    }
+
+    /** Deletes a task and journals the change. */
+    record Delete(int index) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) throws NattoException {
+            Task removed = tasks.remove(index);
+            ui.printDelete(removed, tasks.size());
+            storage.appendDelete(index);
+        }
+    }
+
+    /** Adds a todo, deadline, event or contact and journals it; an event is checked for clashes. */
+    record Add(Task task) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) throws NattoException {
+            tasks.add(task);
+            int index = tasks.size() - 1;
+            List<Task> conflicts = task instanceof Event ? tasks.conflictsWith(index) : List.of();
+            ui.printAdd(task, tasks.getId(index), tasks.size(), conflicts);
+            storage.appendAdd(task);
+        }
+    }
+
+    /** Shows tasks whose names contain a keyword. */
+    record Find(String keyword) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) {
+            ui.printFind(tasks, keyword);
+        }
+    }
+
+    /** Shows tasks containing all, or any, of some whole words. */
+    record Search(List<String> words, boolean isMatchAll) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) {
+            ui.printMatches(tasks.search(words, isMatchAll));
+        }
+    }
+
+    /** Shows deadlines due on a date. */
+    record Due(LocalDate date) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) {
+            ui.printMatches(tasks.dueBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay()));
+        }
+    }
+
+    /** Shows deadlines due and events starting in a date range, both ends inclusive. */
+    record Between(LocalDate first, LocalDate last) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) {
+            ui.printMatches(tasks.datedBetween(first.atStartOfDay(), last.plusDays(1).atStartOfDay()));
+        }
+    }
+
+    /** Shows events running at any time in a date range, both ends inclusive. */
+    record Overlapping(LocalDate first, LocalDate last) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) {
+            ui.printMatches(tasks.eventsOverlapping(first.atStartOfDay(), last.plusDays(1).atStartOfDay()));
+        }
+    }
+
+    /** Shows events that overlap each other, or, given an index, events that overlap that one. */
+    record Conflicts(int index) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) {
+            ui.printMatches(index < 0 ? tasks.conflicts() : tasks.conflictsWith(index));
+        }
+    }
+
+    /**
+     * Adds every task in a CSV or JSON Lines file, saving them with one snapshot rather than a
+     * journal record each. If any line is invalid, none of the file's tasks are kept.
+     */
+    record Import(Path file, ExchangeFormat format) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) throws NattoException {
+            int before = tasks.size();
+            boolean isOwnBatch = !storage.isInBatch();
+            if (isOwnBatch) {
+                storage.beginBatch();
+            }
+            try {
+                long count = TaskTransfer.importTasks(file, format, tasks, n -> ui.printProgress("Imported", n));
+                if (isOwnBatch) {
+                    storage.endBatch(tasks);
+                }
+                ui.printImport(count, file.toString(), tasks.size());
+            } catch (IOException | NattoException | RuntimeException e) {
+                while (tasks.size() > before) {
+                    tasks.remove(tasks.size() - 1);
+                }
+                if (isOwnBatch) {
+                    storage.abortBatch();
+                }
+                if (e instanceof NattoException) {
+                    throw new NattoException(e.getMessage() + "\nNo tasks were imported.");
+                }
+                throw new NattoException("Cannot import " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Writes every task to a CSV or JSON Lines file. */
+    record Export(Path file, ExchangeFormat format) implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) throws NattoException {
+            try {
+                long count = TaskTransfer.exportTasks(tasks, format, file, n -> ui.printProgress("Exported", n));
+                ui.printExport(count, file.toString());
+            } catch (IOException e) {
+                throw new NattoException("Cannot export to " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Shows the creator's contact information. */
+    record Creator() implements Command {
+        @Override
+        public void execute(TaskList tasks, Ui ui, Storage storage) {
+            ui.printContactCreator(CREATOR_NAME, CREATOR_NUM, CREATOR_EMAIL);
+        }
+    }
+}
@@ -13,8 +13,8 @@ class Contact extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[C]" + super.toString()
+    protected String render() {
+        return "[C]" + super.render()
                 + " (p: " + phone
                 + ", e: " + email
                 + (address == null || address.isBlank() ? "" : ", a: " + address)
@@ -0,0 +1,102 @@
+package natto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted index of the dates of deadlines and events, for date range queries.
+ *
+ * <p>Deadlines are kept by their due time and events by their start time, each in a
+ * {@link NavigableMap} from time to the keys of the tasks at that time. A range query costs one
+ * lookup plus the number of entries in range. Which events are running at a given time is answered
+ * by an {@link IntervalTree} instead.
+ */
+class DateIndex {
+    private final NavigableMap<LocalDateTime, PostingList> deadlines = new TreeMap<>();
+    private final NavigableMap<LocalDateTime, PostingList> eventStarts = new TreeMap<>();
+
+    /**
+     * Indexes a task under the given key, if it has dates.
+     *
+     * @param key Key of the task.
+     * @param task Task to index.
+     */
+    void add(long key, Task task) {
+        if (task instanceof Deadline) {
+            deadlines.computeIfAbsent(((Deadline) task).by, t -> new PostingList()).add(key);
+        } else if (task instanceof Event) {
+            eventStarts.computeIfAbsent(((Event) task).from, t -> new PostingList()).add(key);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param key Key of the task.
+     * @param task Task to remove.
+     */
+    void remove(long key, Task task) {
+        if (task instanceof Deadline) {
+            removeKey(deadlines, ((Deadline) task).by, key);
+        } else if (task instanceof Event) {
+            removeKey(eventStarts, ((Event) task).from, key);
+        }
+    }
+
+    private static void removeKey(Map<LocalDateTime, PostingList> index, LocalDateTime time, long key) {
+        PostingList list = index.get(time);
+        if (list != null && list.remove(key) && list.size() == 0) {
+            index.remove(time);
+        }
+    }
+
+    /**
+     * Returns deadlines due in {@code [from, until)}.
+     *
+     * @return Keys, earliest due first.
+     */
+    List<Long> deadlinesBetween(LocalDateTime from, LocalDateTime until) {
+        return keysOf(deadlines.subMap(from, true, until, false).values());
+    }
+
+    /**
+     * Returns deadlines due and events starting in {@code [from, until)}.
+     *
+     * @return Keys, earliest first; a deadline comes before an event at the same time.
+     */
+    List<Long> datedBetween(LocalDateTime from, LocalDateTime until) {
+        Iterator<Map.Entry<LocalDateTime, PostingList>> due =
+                deadlines.subMap(from, true, until, false).entrySet().iterator();
+        Iterator<Map.Entry<LocalDateTime, PostingList>> starting =
+                eventStarts.subMap(from, true, until, false).entrySet().iterator();
+
+        List<Long> keys = new ArrayList<>();
+        Map.Entry<LocalDateTime, PostingList> d = due.hasNext() ? due.next() : null;
+        Map.Entry<LocalDateTime, PostingList> e = starting.hasNext() ? starting.next() : null;
+        while (d != null || e != null) {
+            if (e == null || (d != null && !d.getKey().isAfter(e.getKey()))) {
+                d.getValue().addTo(keys);
+                d = due.hasNext() ? due.next() : null;
+            } else {
+                e.getValue().addTo(keys);
+                e = starting.hasNext() ? starting.next() : null;
+            }
+        }
+        return keys;
+    }
+
+    private static List<Long> keysOf(Collection<PostingList> lists) {
+        List<Long> keys = new ArrayList<>();
+        for (PostingList list : lists) {
+            list.addTo(keys);
+        }
+        return keys;
+    }
+
+}
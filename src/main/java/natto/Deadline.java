@@ -0,0 +1,35 @@
+package natto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Represents a task that must be done by a specific date/time.
+ */
+public class Deadline extends Task {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    protected LocalDateTime by;
+
+    /**
+     * Creates a deadline task with a description and due date/time.
+     *
+     * @param description Description of the deadline task.
+     * @param by Due date/time.
+     */
+    public Deadline(String description, LocalDateTime by) {
+        super(description);
+        assert by != null : "Deadline 'by' should not be null";
+        this.by = by;
+    }
+
+    /**
+     * Returns the string representation of a deadline for display.
+     *
+     * @return Display string of the deadline.
+     */
+    @Override
+    protected String render() {
+        return "[D]" + super.render() + " (by: " + by.format(DATE_FORMAT) + ")";
+    }
+}
@@ -0,0 +1,177 @@
+package natto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link TextArena} outside the Java heap, in direct {@link ByteBuffer} chunks.
+ *
+ * <p>Text kept here is invisible to the garbage collector, so collection pauses do not grow with the
+ * number of tasks. Strings are stored in blocks rounded up to {@value #BLOCK_ALIGNMENT} bytes;
+ * a released block goes on a free list for its size and is reused by the next string that needs a
+ * block of that size. Blocks never span chunks, and the arena holds at most 2 GiB.
+ */
+class DirectTextArena implements TextArena {
+    static final int CHUNK_BITS = 24;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int BLOCK_ALIGNMENT = 8;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final int chunkSize;
+    private final int maxChunks;
+    /** Offset of the first byte never handed out, in the last chunk. */
+    private int top;
+    private long used;
+    private long garbage;
+    private final Map<Integer, FreeList> freeLists = new HashMap<>();
+
+    DirectTextArena(long capacity) {
+        this(capacity, CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an arena with chunks of the given size.
+     *
+     * @param capacity Bytes to reserve up front; ignored beyond the first chunk.
+     * @param chunkSize Bytes per chunk; a power of two no larger than {@link #CHUNK_SIZE}.
+     */
+    DirectTextArena(long capacity, int chunkSize) {
+        assert Integer.bitCount(chunkSize) == 1 && chunkSize <= CHUNK_SIZE : "Bad chunk size";
+        this.chunkSize = chunkSize;
+        this.maxChunks = (int) ((1L << 31) / chunkSize);
+        int first = 4096;
+        while (first < capacity && first < chunkSize) {
+            first <<= 1;
+        }
+        chunks.add(ByteBuffer.allocateDirect(Math.min(first, chunkSize)));
+    }
+
+    @Override
+    public int add(byte[] utf8) {
+        int block = blockSize(utf8.length);
+        FreeList free = freeLists.get(block);
+        int offset;
+        if (free != null && free.size > 0) {
+            offset = free.pop();
+            garbage -= block;
+        } else {
+            offset = allocate(block);
+        }
+        chunkOf(offset).put(positionOf(offset), utf8);
+        return offset;
+    }
+
+    /** Takes a new block from the end of the last chunk, adding or growing a chunk as needed. */
+    private int allocate(int block) {
+        if (block > chunkSize) {
+            throw new IllegalArgumentException("Text of " + block + " bytes does not fit in the arena");
+        }
+        ByteBuffer last = chunks.get(chunks.size() - 1);
+        if (top + block > last.capacity() && last.capacity() < chunkSize) {
+            int capacity = last.capacity();
+            while (capacity < top + block && capacity < chunkSize) {
+                capacity <<= 1;
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+            grown.put(0, last, 0, top);
+            chunks.set(chunks.size() - 1, grown);
+            last = grown;
+        }
+        if (top + block > last.capacity()) {
+            if (chunks.size() == maxChunks) {
+                throw new IllegalStateException("Text arena is full");
+            }
+            garbage += last.capacity() - top;
+            used += last.capacity() - top;
+            chunks.add(ByteBuffer.allocateDirect(chunkSize));
+            top = 0;
+        }
+        int offset = (chunks.size() - 1) * chunkSize + top;
+        top += block;
+        used += block;
+        return offset;
+    }
+
+    @Override
+    public byte[] bytes(int offset, int length) {
+        byte[] copy = new byte[length];
+        chunkOf(offset).get(positionOf(offset), copy);
+        return copy;
+    }
+
+    @Override
+    public String get(int offset, int length) {
+        return new String(bytes(offset, length), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean matches(int offset, int length, byte[] utf8) {
+        if (length != utf8.length) {
+            return false;
+        }
+        ByteBuffer chunk = chunkOf(offset);
+        int position = positionOf(offset);
+        for (int i = 0; i < length; i++) {
+            if (chunk.get(position + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void release(int offset, int length) {
+        int block = blockSize(length);
+        freeLists.computeIfAbsent(block, b -> new FreeList()).push(offset);
+        garbage += block;
+    }
+
+    @Override
+    public long used() {
+        return used;
+    }
+
+    @Override
+    public long garbage() {
+        return garbage;
+    }
+
+    @Override
+    public TextArena newArena(long capacity) {
+        return new DirectTextArena(capacity, chunkSize);
+    }
+
+    private ByteBuffer chunkOf(int offset) {
+        return chunks.get(offset / chunkSize);
+    }
+
+    private int positionOf(int offset) {
+        return offset & (chunkSize - 1);
+    }
+
+    private static int blockSize(int length) {
+        return Math.max(BLOCK_ALIGNMENT, (length + BLOCK_ALIGNMENT - 1) & -BLOCK_ALIGNMENT);
+    }
+
+    /** Stack of the offsets of released blocks of one size. */
+    private static class FreeList {
+        private int[] offsets = new int[8];
+        private int size;
+
+        void push(int offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+
+        int pop() {
+            return offsets[--size];
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package natto;
+
+/**
+ * How long a journaled mutation may wait before it is forced to disk.
+ */
+public enum Durability {
+    /** Records are handed to the OS by the writer thread but never forced; fastest, least safe. */
+    NONE,
+    /** Bursts of records are forced with one fsync per batch, without the caller waiting for it. */
+    BATCHED,
+    /** Each caller waits until its record has been forced; concurrent callers still share one fsync. */
+    PER_COMMAND;
+
+    /**
+     * Parses a durability level such as {@code "none"}, {@code "batched"} or {@code "per-command"}.
+     *
+     * @param value Level name, case-insensitive; null or blank gives {@link #BATCHED}.
+     * @return The matching durability level.
+     * @throws IllegalArgumentException If the name is not a known level.
+     */
+    public static Durability parse(String value) {
+        if (value == null || value.isBlank()) {
+            return BATCHED;
+        }
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,37 @@
+package natto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Represents an event task with a start and end date/time.
+ */
+public class Event extends Task {
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    protected LocalDateTime from;
+    protected LocalDateTime to;
+
+    /**
+     * Creates an event with a description, start time, and end time.
+     *
+     * @param description Description of the event.
+     * @param from Start date/time.
+     * @param to End date/time.
+     */
+    public Event(String description, LocalDateTime from, LocalDateTime to) {
+        super(description);
+        assert from != null : "Event 'from' should not be null";
+        assert to != null : "Event 'to' should not be null";
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected String render() {
+        return "[E]" + super.render()
+                + " (from: " + from.format(DATE_TIME_FORMAT)
+                + " to: " + to.format(TIME_FORMAT) + ")";
+    }
+}
@@ -0,0 +1,438 @@
+package natto;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * File formats for moving tasks in and out of Natto in bulk, one task per line.
+ *
+ * <p>Both formats carry the same fields as the data file: the type letter, the done flag, the name,
+ * then whichever of {@code by}, {@code from}, {@code to}, {@code phone}, {@code email} and
+ * {@code address} the type has. Dates are ISO date-times, as in the data file.
+ */
+enum ExchangeFormat {
+    /** Comma-separated values with a header row; fields are quoted when they need to be. */
+    CSV(".csv") {
+        @Override
+        String header() {
+            return String.join(",", FIELDS);
+        }
+
+        @Override
+        String encode(Task task) {
+            String[] values = fieldsOf(task);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendCsv(sb, values[i]);
+            }
+            return sb.toString();
+        }
+
+        @Override
+        Task decode(String line) {
+            if (line.equals(header())) {
+                return null;
+            }
+            String[] values = new String[FIELDS.length];
+            int field = 0;
+            int i = 0;
+            while (i <= line.length()) {
+                if (field == values.length) {
+                    throw new IllegalArgumentException("Too many fields");
+                }
+                StringBuilder value = new StringBuilder();
+                if (i < line.length() && line.charAt(i) == '"') {
+                    i = readQuoted(line, i + 1, value);
+                } else {
+                    int comma = line.indexOf(',', i);
+                    int end = comma < 0 ? line.length() : comma;
+                    value.append(line, i, end);
+                    i = end;
+                }
+                values[field++] = value.length() == 0 ? null : value.toString();
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Expected ',' after a quoted field");
+                }
+                i++;
+            }
+            return taskOf(values);
+        }
+    },
+
+    /** JSON Lines: one flat JSON object per line, without the fields a task does not have. */
+    JSONL(".jsonl") {
+        @Override
+        String header() {
+            return null;
+        }
+
+        @Override
+        String encode(Task task) {
+            String[] values = fieldsOf(task);
+            StringBuilder sb = new StringBuilder("{");
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                if (sb.length() > 1) {
+                    sb.append(',');
+                }
+                appendJsonString(sb, FIELDS[i]);
+                sb.append(':');
+                if (i == DONE) {
+                    sb.append(values[i].equals("1"));
+                } else {
+                    appendJsonString(sb, values[i]);
+                }
+            }
+            return sb.append('}').toString();
+        }
+
+        @Override
+        Task decode(String line) {
+            return taskOf(readJsonObject(line));
+        }
+    };
+
+    private static final String[] FIELDS = {"type", "done", "name", "by", "from", "to", "phone", "email", "address"};
+    private static final int TYPE = 0;
+    private static final int DONE = 1;
+    private static final int NAME = 2;
+    private static final int BY = 3;
+    private static final int FROM = 4;
+    private static final int TO = 5;
+    private static final int PHONE = 6;
+    private static final int EMAIL = 7;
+    private static final int ADDRESS = 8;
+
+    private final String extension;
+
+    ExchangeFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Picks the format of a file from its extension.
+     *
+     * @param file File to be read or written.
+     * @return The format.
+     * @throws NattoException If the extension is neither {@code .csv} nor {@code .jsonl}.
+     */
+    static ExchangeFormat of(Path file) throws NattoException {
+        String name = file.getFileName() == null ? "" : file.getFileName().toString().toLowerCase();
+        for (ExchangeFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new NattoException("Only .csv and .jsonl files can be imported or exported.");
+    }
+
+    /** Returns the line written before the first task, or null if the format has none. */
+    abstract String header();
+
+    /** Returns one task as a line, without the line break. */
+    abstract String encode(Task task);
+
+    /**
+     * Reads one task from a line.
+     *
+     * @param line Line without its line break.
+     * @return The task, or null if the line is a header.
+     * @throws IllegalArgumentException If the line is not a valid task.
+     */
+    abstract Task decode(String line);
+
+    /** Returns the field values of a task, in {@link #FIELDS} order, with null for fields it does not have. */
+    private static String[] fieldsOf(Task task) {
+        String[] values = new String[FIELDS.length];
+        values[DONE] = task.isDone() ? "1" : "0";
+        values[NAME] = task.getName();
+        if (task instanceof Deadline) {
+            values[TYPE] = "D";
+            values[BY] = ((Deadline) task).by.toString();
+        } else if (task instanceof Event) {
+            values[TYPE] = "E";
+            values[FROM] = ((Event) task).from.toString();
+            values[TO] = ((Event) task).to.toString();
+        } else if (task instanceof Contact) {
+            Contact contact = (Contact) task;
+            values[TYPE] = "C";
+            values[PHONE] = contact.getPhone();
+            values[EMAIL] = contact.getEmail();
+            values[ADDRESS] = contact.getAddress();
+        } else if (task instanceof Todo) {
+            values[TYPE] = "T";
+        } else {
+            throw new IllegalArgumentException("Unknown task type: " + task.getClass().getSimpleName());
+        }
+        return values;
+    }
+
+    /**
+     * Builds a task from field values in {@link #FIELDS} order. Control characters in the text fields,
+     * such as line breaks decoded from a JSON escape, become spaces: the data file and journal hold one
+     * task per line, and a line break inside a name would split its record in two.
+     */
+    private static Task taskOf(String[] values) {
+        for (int f = NAME; f < values.length; f++) {
+            values[f] = withoutControlCharacters(values[f]);
+        }
+        String type = values[TYPE];
+        String name = values[NAME];
+        if (type == null || name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Every task needs a type and a name");
+        }
+        Task task;
+        switch (type) {
+        case "T":
+            task = new Todo(name);
+            break;
+        case "D":
+            task = new Deadline(name, dateTime(values, BY));
+            break;
+        case "E":
+            task = new Event(name, dateTime(values, FROM), dateTime(values, TO));
+            break;
+        case "C":
+            task = new Contact(name, required(values, PHONE), required(values, EMAIL),
+                    values[ADDRESS] == null ? "" : values[ADDRESS]);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown task type: " + type);
+        }
+        String done = values[DONE];
+        if ("1".equals(done) || "true".equals(done)) {
+            task.mark();
+        } else if (done != null && !done.equals("0") && !done.equals("false")) {
+            throw new IllegalArgumentException("done must be 1, 0, true or false");
+        }
+        return task;
+    }
+
+    private static String withoutControlCharacters(String value) {
+        if (value == null) {
+            return null;
+        }
+        char[] chars = null;
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isISOControl(value.charAt(i))) {
+                if (chars == null) {
+                    chars = value.toCharArray();
+                }
+                chars[i] = ' ';
+            }
+        }
+        return chars == null ? value : new String(chars);
+    }
+
+    private static String required(String[] values, int field) {
+        if (values[field] == null) {
+            throw new IllegalArgumentException("Missing " + FIELDS[field]);
+        }
+        return values[field];
+    }
+
+    private static LocalDateTime dateTime(String[] values, int field) {
+        try {
+            return LocalDateTime.parse(required(values, field));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + FIELDS[field] + ": " + values[field]);
+        }
+    }
+
+    private static void appendCsv(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean isQuoted = value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!isQuoted) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    /** Reads a quoted CSV field that starts after its opening quote, returning the index after its closing quote. */
+    private static int readQuoted(String line, int i, StringBuilder value) {
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (c != '"') {
+                value.append(c);
+            } else if (i < line.length() && line.charAt(i) == '"') {
+                value.append('"');
+                i++;
+            } else {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated quoted field");
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < ' ') {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Reads a flat JSON object whose values are strings, booleans or null, into {@link #FIELDS} order.
+     * Keys that are not fields are ignored.
+     */
+    private static String[] readJsonObject(String line) {
+        String[] values = new String[FIELDS.length];
+        JsonCursor in = new JsonCursor(line);
+        in.expect('{');
+        if (in.peek() == '}') {
+            in.expect('}');
+        } else {
+            do {
+                String key = in.readString();
+                in.expect(':');
+                String value = in.readValue();
+                for (int f = 0; f < FIELDS.length; f++) {
+                    if (FIELDS[f].equals(key)) {
+                        values[f] = value;
+                    }
+                }
+            } while (in.skipComma());
+            in.expect('}');
+        }
+        if (in.peek() != -1) {
+            throw new IllegalArgumentException("Unexpected text after the object");
+        }
+        return values;
+    }
+
+    /** Reads the pieces of one line of JSON. */
+    private static final class JsonCursor {
+        private static final String[] LITERALS = {"true", "false", "null"};
+
+        private final String text;
+        private int pos;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        int peek() {
+            while (pos < text.length() && text.charAt(pos) <= ' ') {
+                pos++;
+            }
+            return pos < text.length() ? text.charAt(pos) : -1;
+        }
+
+        void expect(char c) {
+            if (peek() != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at column " + (pos + 1));
+            }
+            pos++;
+        }
+
+        boolean skipComma() {
+            if (peek() == ',') {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /** Reads a string, true, false or null; booleans become "1" and "0", like the done column in CSV. */
+        String readValue() {
+            if (peek() == '"') {
+                return readString();
+            }
+            for (String literal : LITERALS) {
+                if (text.startsWith(literal, pos)) {
+                    pos += literal.length();
+                    return literal.equals("null") ? null : literal.equals("true") ? "1" : "0";
+                }
+            }
+            throw new IllegalArgumentException("Expected a string, true, false or null at column " + (pos + 1));
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw new IllegalArgumentException("Bad \\u escape");
+                    }
+                    sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    pos += 4;
+                    break;
+                default:
+                    sb.append(escaped);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+    }
+}
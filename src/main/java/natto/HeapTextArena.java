@@ -0,0 +1,64 @@
+package natto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@link TextArena} in a single growable byte array. Strings are only ever appended; released bytes
+ * stay garbage until the owner defragments.
+ */
+class HeapTextArena implements TextArena {
+    private byte[] bytes;
+    private int used;
+    private int garbage;
+
+    HeapTextArena(long capacity) {
+        bytes = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(64, capacity))];
+    }
+
+    @Override
+    public int add(byte[] utf8) {
+        if (used + utf8.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + utf8.length));
+        }
+        System.arraycopy(utf8, 0, bytes, used, utf8.length);
+        int offset = used;
+        used += utf8.length;
+        return offset;
+    }
+
+    @Override
+    public byte[] bytes(int offset, int length) {
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+    @Override
+    public String get(int offset, int length) {
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean matches(int offset, int length, byte[] utf8) {
+        return Arrays.equals(bytes, offset, offset + length, utf8, 0, utf8.length);
+    }
+
+    @Override
+    public void release(int offset, int length) {
+        garbage += length;
+    }
+
+    @Override
+    public long used() {
+        return used;
+    }
+
+    @Override
+    public long garbage() {
+        return garbage;
+    }
+
+    @Override
+    public TextArena newArena(long capacity) {
+        return new HeapTextArena(capacity);
+    }
+}
@@ -0,0 +1,273 @@
+package natto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Augmented interval tree over half-open intervals {@code [start, end)}, each tagged with a task key.
+ *
+ * <p>The tree is a treap ordered by start, then key; every node also records the largest end in its
+ * subtree, so a stabbing or overlap query skips any subtree that ends too early. Inserts and removals
+ * take expected O(log n) time, and a query reporting k intervals takes O(log n + k) in practice.
+ * A tree for many intervals at once is best made with {@link #build(long[], long[], long[])}, which
+ * sorts once instead of inserting one by one.
+ */
+class IntervalTree {
+    private static final Random PRIORITIES = new Random();
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Builds a balanced tree from many intervals in O(n log n).
+     *
+     * @param starts Interval starts.
+     * @param ends Interval ends, by the same position.
+     * @param keys Task keys, by the same position; must be distinct.
+     * @return The tree.
+     */
+    static IntervalTree build(long[] starts, long[] ends, long[] keys) {
+        int n = keys.length;
+        Node[] nodes = new Node[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = new Node(starts[i], ends[i], keys[i], 0);
+        }
+        Arrays.sort(nodes, (a, b) -> a.compareTo(b.start, b.key));
+
+        IntervalTree tree = new IntervalTree();
+        tree.root = buildBalanced(nodes, 0, n);
+        tree.size = n;
+        assignPriorities(tree.root, n);
+        return tree;
+    }
+
+    private static Node buildBalanced(Node[] sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node node = sorted[mid];
+        node.left = buildBalanced(sorted, from, mid);
+        node.right = buildBalanced(sorted, mid + 1, to);
+        node.update();
+        return node;
+    }
+
+    /**
+     * Hands out random priorities, largest first in breadth-first order, so the balanced tree is
+     * also a valid treap and later inserts keep it balanced.
+     */
+    private static void assignPriorities(Node root, int n) {
+        if (root == null) {
+            return;
+        }
+        int[] priorities = new int[n];
+        for (int i = 0; i < n; i++) {
+            priorities[i] = PRIORITIES.nextInt();
+        }
+        Arrays.sort(priorities);
+
+        Node[] queue = new Node[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        while (head < tail) {
+            Node node = queue[head];
+            node.priority = priorities[n - 1 - head];
+            head++;
+            if (node.left != null) {
+                queue[tail++] = node.left;
+            }
+            if (node.right != null) {
+                queue[tail++] = node.right;
+            }
+        }
+    }
+
+    /**
+     * Adds an interval.
+     *
+     * @param start Start, inclusive.
+     * @param end End, exclusive.
+     * @param key Key of the task; must not already be in the tree.
+     */
+    void insert(long start, long end, long key) {
+        root = insert(root, new Node(start, end, key, PRIORITIES.nextInt()));
+        size++;
+    }
+
+    private static Node insert(Node t, Node n) {
+        if (t == null) {
+            return n;
+        }
+        if (n.priority > t.priority) {
+            Node[] parts = split(t, n.start, n.key);
+            n.left = parts[0];
+            n.right = parts[1];
+            n.update();
+            return n;
+        }
+        if (n.compareTo(t.start, t.key) < 0) {
+            t.left = insert(t.left, n);
+        } else {
+            t.right = insert(t.right, n);
+        }
+        t.update();
+        return t;
+    }
+
+    /**
+     * Removes an interval.
+     *
+     * @param start Start the interval was added with.
+     * @param key Key of the task.
+     * @return Whether the interval was present.
+     */
+    boolean remove(long start, long key) {
+        int before = size;
+        root = remove(root, start, key);
+        return size < before;
+    }
+
+    private Node remove(Node t, long start, long key) {
+        if (t == null) {
+            return null;
+        }
+        int cmp = t.compareTo(start, key);
+        if (cmp == 0) {
+            size--;
+            return merge(t.left, t.right);
+        }
+        if (cmp > 0) {
+            t.left = remove(t.left, start, key);
+        } else {
+            t.right = remove(t.right, start, key);
+        }
+        t.update();
+        return t;
+    }
+
+    /**
+     * Collects the keys of intervals that overlap {@code [lo, hi)}, that is, start before {@code hi}
+     * and end after {@code lo}.
+     *
+     * @param lo Start of the query range, inclusive.
+     * @param hi End of the query range, exclusive.
+     * @param out Receives matching keys, earliest start first.
+     */
+    void overlapping(long lo, long hi, List<Long> out) {
+        overlapping(root, lo, hi, out);
+    }
+
+    private static void overlapping(Node t, long lo, long hi, List<Long> out) {
+        if (t == null || t.maxEnd <= lo) {
+            return;
+        }
+        overlapping(t.left, lo, hi, out);
+        if (t.start >= hi) {
+            return;
+        }
+        if (t.end > lo) {
+            out.add(t.key);
+        }
+        overlapping(t.right, lo, hi, out);
+    }
+
+    /**
+     * Calls the visitor with every interval, earliest start first.
+     *
+     * @param visitor Receives each interval.
+     */
+    void forEach(Visitor visitor) {
+        forEach(root, visitor);
+    }
+
+    private static void forEach(Node t, Visitor visitor) {
+        if (t == null) {
+            return;
+        }
+        forEach(t.left, visitor);
+        visitor.visit(t.start, t.end, t.key);
+        forEach(t.right, visitor);
+    }
+
+    /** Splits a subtree into the nodes before {@code (start, key)} and the rest. */
+    private static Node[] split(Node t, long start, long key) {
+        if (t == null) {
+            return new Node[2];
+        }
+        if (t.compareTo(start, key) < 0) {
+            Node[] parts = split(t.right, start, key);
+            t.right = parts[0];
+            t.update();
+            parts[0] = t;
+            return parts;
+        }
+        Node[] parts = split(t.left, start, key);
+        t.left = parts[1];
+        t.update();
+        parts[1] = t;
+        return parts;
+    }
+
+    /** Joins two subtrees where every node of {@code a} comes before every node of {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    /** Receives the intervals of the tree. */
+    interface Visitor {
+        void visit(long start, long end, long key);
+    }
+
+    private static final class Node {
+        private final long start;
+        private final long end;
+        private final long key;
+        private int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(long start, long end, long key, int priority) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(long otherStart, long otherKey) {
+            int cmp = Long.compare(start, otherStart);
+            return cmp != 0 ? cmp : Long.compare(key, otherKey);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package natto;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Append-only log of task list mutations, split into numbered segment files.
+ * Records always go to the active segment. Sealing it moves appends on to the next segment,
+ * so that everything up to the sealed one can be folded into a snapshot and then deleted.
+ *
+ * <p>Appends are queued to a dedicated writer thread. It drains whatever has queued up,
+ * writes it in one go and forces it to disk according to the {@link Durability} level,
+ * so a burst of mutations costs a single fsync.
+ */
+class Journal {
+    static final String SEPARATOR = " | ";
+    static final int QUEUE_CAPACITY = 4096;
+
+    static final String OP_ADD = "add";
+    static final String OP_MARK = "mark";
+    static final String OP_UNMARK = "unmark";
+    static final String OP_DELETE = "delete";
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final Path dir;
+    private final String segmentPrefix;
+    private final Durability durability;
+    private final BlockingQueue<Request> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private volatile boolean isOpened;
+    private volatile boolean isClosed;
+    private int pendingRecords;
+    private long pendingBytes;
+    private volatile IOException failure;
+
+    /** Only touched by the writer thread once it has started. */
+    private long activeSeq;
+    private FileChannel channel;
+
+    /**
+     * Creates a journal for the given data file. Segments are named after it, e.g.
+     * {@code NatData.txt.journal.3}.
+     *
+     * @param dataFile Snapshot data file the journal belongs to.
+     * @param durability When appended records are forced to disk.
+     */
+    Journal(Path dataFile, Durability durability) {
+        Path absolute = dataFile.toAbsolutePath();
+        this.dir = absolute.getParent();
+        this.segmentPrefix = absolute.getFileName() + ".journal.";
+        this.durability = durability;
+    }
+
+    /**
+     * Picks the segment that new records go to and starts the writer thread. A fresh segment is
+     * always started, so a record cut short by a crash at the end of an older segment is never
+     * followed by new ones.
+     *
+     * @param snapshotSeq Last segment already folded into the snapshot.
+     * @throws IOException If the existing segments cannot be listed.
+     */
+    synchronized void open(long snapshotSeq) throws IOException {
+        if (isOpened) {
+            return;
+        }
+        long lastSeq = snapshotSeq;
+        for (long seq : segmentsAfter(snapshotSeq)) {
+            lastSeq = Math.max(lastSeq, seq);
+            pendingBytes += Files.size(segmentPath(seq));
+        }
+        activeSeq = lastSeq + 1;
+        isOpened = true;
+
+        Thread writer = new Thread(this::runWriter, "natto-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    boolean isOpened() {
+        return isOpened;
+    }
+
+    /**
+     * Queues one record for the active segment. Blocks while the queue is full, and with
+     * {@link Durability#PER_COMMAND} also until the record has been forced to disk.
+     *
+     * @param record Record to append.
+     * @throws IOException If the writer has failed or the record could not be forced.
+     */
+    void append(String record) throws IOException {
+        boolean isWaiting = durability == Durability.PER_COMMAND;
+        // Encoded here rather than by the writer, so the size counted towards compaction is the size written.
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        Request request = new Request(Request.Kind.RECORD, bytes, isWaiting ? new CompletableFuture<>() : null);
+        submit(request);
+        countQueued(bytes.length + LINE_SEPARATOR.length);
+        if (isWaiting) {
+            await(request);
+        }
+    }
+
+    /**
+     * Blocks until every record queued so far has been written and forced to disk.
+     *
+     * @throws IOException If the writer has failed.
+     */
+    void flush() throws IOException {
+        if (!isOpened || isClosed) {
+            return;
+        }
+        Request request = new Request(Request.Kind.FLUSH, null, new CompletableFuture<>());
+        submit(request);
+        await(request);
+    }
+
+    /**
+     * Closes the active segment to further appends and starts the next one.
+     * Records queued before the call end up in the sealed segment.
+     *
+     * @return Sequence number of the segment that was sealed.
+     * @throws IOException If the writer has failed.
+     */
+    long seal() throws IOException {
+        Request request = new Request(Request.Kind.SEAL, null, new CompletableFuture<>());
+        resetPending();
+        submit(request);
+        return await(request);
+    }
+
+    /**
+     * Writes every queued record, forces the active segment to disk and closes it. The writer is a
+     * daemon thread, so this must be called before the program exits, or queued records are lost.
+     * Appending afterwards fails.
+     *
+     * @throws IOException If the writer has failed.
+     */
+    void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        if (!isOpened) {
+            isClosed = true;
+            return;
+        }
+        Request request = new Request(Request.Kind.SEAL, null, new CompletableFuture<>());
+        submit(request);
+        isClosed = true;
+        await(request);
+    }
+
+    boolean isClosed() {
+        return isClosed;
+    }
+
+    synchronized int getPendingRecords() {
+        return pendingRecords;
+    }
+
+    synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Adds records found while replaying at startup to the count of records not yet in a snapshot.
+     *
+     * @param records Number of replayed records.
+     */
+    synchronized void addPendingRecords(int records) {
+        pendingRecords += records;
+    }
+
+    private synchronized void countQueued(long bytes) {
+        pendingRecords++;
+        pendingBytes += bytes;
+    }
+
+    private synchronized void resetPending() {
+        pendingRecords = 0;
+        pendingBytes = 0;
+    }
+
+    private void submit(Request request) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (isClosed) {
+            throw new IOException("The journal has been closed");
+        }
+        try {
+            queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing a journal record", e);
+        }
+    }
+
+    private long await(Request request) throws IOException {
+        try {
+            return request.done.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the journal", e);
+        }
+    }
+
+    private void runWriter() {
+        List<Request> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a drained batch with as few system calls as possible: consecutive records share a
+     * single write, and the batch shares a single force unless durability is {@link Durability#NONE}.
+     */
+    private void writeBatch(List<Request> batch) {
+        List<byte[]> records = new ArrayList<>();
+        boolean needsForce = durability != Durability.NONE;
+
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            for (Request request : batch) {
+                switch (request.kind) {
+                case RECORD:
+                    records.add(request.record);
+                    break;
+                case FLUSH:
+                    needsForce = true;
+                    break;
+                case SEAL:
+                    writeRecords(records);
+                    request.seq = activeSeq;
+                    closeSegment();
+                    activeSeq++;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journal request: " + request.kind);
+                }
+            }
+            writeRecords(records);
+            if (needsForce && channel != null) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        for (Request request : batch) {
+            if (request.done == null) {
+                continue;
+            }
+            if (failure != null) {
+                request.done.completeExceptionally(failure);
+            } else {
+                request.done.complete(request.seq);
+            }
+        }
+    }
+
+    private void writeRecords(List<byte[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        int length = 0;
+        for (byte[] record : records) {
+            length += record.length + LINE_SEPARATOR.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] record : records) {
+            buffer.put(record).put(LINE_SEPARATOR);
+        }
+        buffer.flip();
+
+        if (channel == null) {
+            Files.createDirectories(dir);
+            channel = FileChannel.open(segmentPath(activeSeq),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        records.clear();
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        channel.force(false);
+        channel.close();
+        channel = null;
+    }
+
+    /**
+     * Replays the segments in {@code (afterSeq, upToSeq]}, in order, on top of the given tasks.
+     * A record cut short by a crash, which can only be the unterminated last line of its segment,
+     * is skipped.
+     *
+     * @param afterSeq Last segment already contained in the tasks.
+     * @param upToSeq Last segment to replay.
+     * @param tasks Tasks to apply the records to.
+     * @return Number of records applied.
+     * @throws IOException If a segment cannot be read or holds a corrupted record.
+     */
+    int replay(long afterSeq, long upToSeq, List<Task> tasks) throws IOException {
+        int applied = 0;
+        for (long seq : segmentsAfter(afterSeq)) {
+            if (seq > upToSeq) {
+                break;
+            }
+            applied += replaySegment(segmentPath(seq), tasks);
+        }
+        return applied;
+    }
+
+    /**
+     * Deletes every segment up to and including the given one.
+     *
+     * @param seq Last segment to delete.
+     * @throws IOException If a segment cannot be deleted.
+     */
+    void deleteUpTo(long seq) throws IOException {
+        for (long existing : segmentsAfter(-1)) {
+            if (existing <= seq) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    /** Returns the sequence numbers of existing segments after the given one, in ascending order. */
+    List<Long> segmentsAfter(long seq) throws IOException {
+        List<Long> seqs = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return seqs;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, segmentPrefix + "*")) {
+            for (Path p : stream) {
+                String suffix = p.getFileName().toString().substring(segmentPrefix.length());
+                try {
+                    long s = Long.parseLong(suffix);
+                    if (s > seq) {
+                        seqs.add(s);
+                    }
+                } catch (NumberFormatException e) {
+                    // Not a segment, e.g. an editor backup file.
+                }
+            }
+        }
+        Collections.sort(seqs);
+        return seqs;
+    }
+
+    Path segmentPath(long seq) {
+        return dir.resolve(segmentPrefix + seq);
+    }
+
+    /**
+     * Replays the records of one segment. Every record is written with its line separator, so a final
+     * line without one is the remains of a write that was cut short, even if it happens to parse: it is
+     * dropped and reported rather than applied.
+     */
+    private int replaySegment(Path segment, List<Task> tasks) throws IOException {
+        int applied = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(segment))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            for (int b = in.read(); b != -1; b = in.read()) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String record = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                if (record.endsWith("\r")) {
+                    record = record.substring(0, record.length() - 1);
+                }
+                if (record.isBlank()) {
+                    continue;
+                }
+                try {
+                    applyRecord(tasks, record);
+                } catch (RuntimeException e) {
+                    throw new IOException("Corrupted journal record in " + segment.getFileName(), e);
+                }
+                applied++;
+            }
+            if (line.size() > 0) {
+                System.err.println("Ignored a journal record cut short at the end of " + segment.getFileName()
+                        + ": " + line.toString(StandardCharsets.UTF_8));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Applies a single journal record to the task list. Changed tasks are written back with
+     * {@link List#set(int, Object)}, so lists that read tasks on demand keep the change.
+     */
+    static void applyRecord(List<Task> tasks, String record) {
+        int split = record.indexOf(SEPARATOR);
+        if (split < 0) {
+            throw new IllegalArgumentException("Corrupted journal record: " + record);
+        }
+
+        String op = record.substring(0, split);
+        String argument = record.substring(split + SEPARATOR.length());
+
+        switch (op) {
+        case OP_ADD:
+            tasks.add(Storage.loadTaskArray(argument));
+            break;
+        case OP_MARK: {
+            int index = Integer.parseInt(argument.trim());
+            Task task = tasks.get(index);
+            task.mark();
+            tasks.set(index, task);
+            break;
+        }
+        case OP_UNMARK: {
+            int index = Integer.parseInt(argument.trim());
+            Task task = tasks.get(index);
+            task.unmark();
+            tasks.set(index, task);
+            break;
+        }
+        case OP_DELETE:
+            tasks.remove(Integer.parseInt(argument.trim()));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown journal operation: " + op);
+        }
+    }
+
+    /** A unit of work for the writer thread. */
+    private static class Request {
+        enum Kind { RECORD, FLUSH, SEAL }
+
+        final Kind kind;
+        /** The record in UTF-8, without its line separator. */
+        final byte[] record;
+        final CompletableFuture<Long> done;
+        long seq;
+
+        Request(Kind kind, byte[] record, CompletableFuture<Long> done) {
+            this.kind = kind;
+            this.record = record;
+            this.done = done;
+        }
+    }
+}
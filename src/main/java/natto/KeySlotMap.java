@@ -0,0 +1,124 @@
+package natto;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from task keys to the array slots holding the tasks, with primitive keys and values, so
+ * that neither is boxed. It uses open addressing with linear probing; keys are always positive, which
+ * leaves 0 to mark an empty bucket.
+ */
+final class KeySlotMap {
+    private static final long EMPTY = 0;
+    /** Golden-ratio multiplier that spreads keys handed out in sequence across the buckets. */
+    private static final long SPREAD = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private int[] slots;
+    private int size;
+    private int shift;
+
+    /**
+     * Creates a map with room for the given number of keys before it grows.
+     *
+     * @param expected Number of keys expected.
+     */
+    KeySlotMap(int expected) {
+        int buckets = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        allocate(buckets);
+    }
+
+    private void allocate(int buckets) {
+        keys = new long[buckets];
+        slots = new int[buckets];
+        shift = Long.numberOfLeadingZeros(buckets - 1);
+    }
+
+    private int bucketOf(long key) {
+        return (int) ((key * SPREAD) >>> shift);
+    }
+
+    /**
+     * Maps a key to a slot, replacing any slot it was mapped to.
+     *
+     * @param key Task key; positive.
+     * @param slot Slot holding the task.
+     */
+    void put(long key, int slot) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int b = bucketOf(key);
+        while (keys[b] != EMPTY && keys[b] != key) {
+            b = (b + 1) & mask;
+        }
+        if (keys[b] == EMPTY) {
+            keys[b] = key;
+            size++;
+        }
+        slots[b] = slot;
+    }
+
+    /**
+     * Returns the slot a key is mapped to.
+     *
+     * @param key Task key.
+     * @return The slot, or -1 if the key is not in the map.
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int b = bucketOf(key); keys[b] != EMPTY; b = (b + 1) & mask) {
+            if (keys[b] == key) {
+                return slots[b];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes a key. The keys after it in its run of buckets are shifted back, so lookups never need
+     * to step over a removed entry.
+     *
+     * @param key Task key.
+     */
+    void remove(long key) {
+        int mask = keys.length - 1;
+        int b = bucketOf(key);
+        while (keys[b] != key) {
+            if (keys[b] == EMPTY) {
+                return;
+            }
+            b = (b + 1) & mask;
+        }
+        int gap = b;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = bucketOf(keys[next]);
+            // Move the entry into the gap unless its home bucket lies cyclically in (gap, next].
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                slots[gap] = slots[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+    }
+
+    /** Removes every key, keeping the buckets for reuse. */
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int b = 0; b < oldKeys.length; b++) {
+            if (oldKeys[b] != EMPTY) {
+                put(oldKeys[b], oldSlots[b]);
+            }
+        }
+    }
+}
@@ -1,13 +0,0 @@
-package natto;
-
-import javafx.application.Application;
-
-/**
- * Launcher class to start the JavaFX application.
- */
-public class Launcher {
-
-    public static void main(String[] args) {
-        Application.launch(MainApp.class, args);
-    }
-}
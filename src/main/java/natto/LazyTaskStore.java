@@ -0,0 +1,226 @@
+package natto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link TaskStore} that leaves the tasks of a text snapshot on disk and reads them on demand.
+ *
+ * <p>Only the offset and length of each snapshot line are kept in memory. Tasks are read a page at a
+ * time into a small LRU cache, so listing or scanning the whole list never holds more than a few pages
+ * on the heap. Tasks added since the snapshot, and snapshot tasks that have been changed, live in an
+ * in-memory overlay instead, whose entries are reused once their tasks are removed. The store keeps the
+ * snapshot file open; replacing it by rename, as compaction does, leaves this store reading the original
+ * contents.
+ */
+class LazyTaskStore implements TaskStore {
+    static final int PAGE_SIZE = 512;
+    static final int MAX_CACHED_PAGES = 64;
+
+    private final FileChannel channel;
+    private final long snapshotSeq;
+
+    /** File offset and line length of every snapshot task, by snapshot record number. */
+    private long[] offsets = new long[1024];
+    private int[] lengths = new int[1024];
+    private int recordCount;
+
+    /**
+     * The list order. A value {@code r >= 0} is snapshot record {@code r};
+     * a value {@code -(i + 1)} is {@code overlay.get(i)}.
+     */
+    private int[] slots;
+    /** Key of each task, by position. */
+    private long[] keys;
+    private long nextKey = 1;
+    private int size;
+    private final List<Task> overlay = new ArrayList<>();
+    /** Overlay entries freed by removals, reused before the overlay grows, so it never outgrows the tasks in it. */
+    private int[] freeOverlay = new int[16];
+    private int freeCount;
+
+    private final Map<Integer, Task[]> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Task[]> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    /**
+     * Opens a text snapshot and indexes where its task lines are, without decoding any of them.
+     *
+     * @param file Text snapshot to read from.
+     * @throws IOException If the file cannot be read.
+     */
+    LazyTaskStore(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        snapshotSeq = MappedTaskLoader.scanLines(channel, this::addRecord);
+        slots = new int[Math.max(16, recordCount)];
+        keys = new long[slots.length];
+        for (int r = 0; r < recordCount; r++) {
+            slots[r] = r;
+            keys[r] = nextKey++;
+        }
+        size = recordCount;
+    }
+
+    long getSnapshotSeq() {
+        return snapshotSeq;
+    }
+
+    /**
+     * Closes the snapshot file; snapshot tasks can no longer be read afterwards.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+
+    private void addRecord(long offset, int length) {
+        if (recordCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, recordCount * 2);
+            lengths = Arrays.copyOf(lengths, recordCount * 2);
+        }
+        offsets[recordCount] = offset;
+        lengths[recordCount] = length;
+        recordCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        int slot = slots[checkIndex(index)];
+        return slot >= 0 ? readRecord(slot) : overlay.get(-slot - 1);
+    }
+
+    /** Pins the task in the overlay, so a change made to it in place survives page eviction. */
+    @Override
+    public void set(int index, Task task) {
+        int slot = slots[checkIndex(index)];
+        if (slot < 0) {
+            overlay.set(-slot - 1, task);
+            return;
+        }
+        slots[index] = toOverlay(task);
+    }
+
+    @Override
+    public long add(Task task) {
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size] = nextKey;
+        slots[size++] = toOverlay(task);
+        return nextKey++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        int slot = slots[index];
+        if (slot < 0) {
+            overlay.set(-slot - 1, null);
+            if (freeCount == freeOverlay.length) {
+                freeOverlay = Arrays.copyOf(freeOverlay, freeCount * 2);
+            }
+            freeOverlay[freeCount++] = -slot - 1;
+        }
+        System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        size--;
+        return removed;
+    }
+
+    @Override
+    public long keyAt(int index) {
+        return keys[checkIndex(index)];
+    }
+
+    @Override
+    public int indexOfKey(long key) {
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        return pos >= 0 ? pos : -1;
+    }
+
+    @Override
+    public long nextKey() {
+        return nextKey;
+    }
+
+    @Override
+    public void restoreKeys(long[] restored, long next) {
+        System.arraycopy(restored, 0, keys, 0, restored.length);
+        nextKey = next;
+    }
+
+    private int toOverlay(Task task) {
+        if (freeCount > 0) {
+            int entry = freeOverlay[--freeCount];
+            overlay.set(entry, task);
+            return -(entry + 1);
+        }
+        overlay.add(task);
+        return -overlay.size();
+    }
+
+    /** Returns the number of entries in the overlay, including free ones. */
+    int overlaySize() {
+        return overlay.size();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return index;
+    }
+
+    private Task readRecord(int record) {
+        int page = record / PAGE_SIZE;
+        Task[] tasks = pages.get(page);
+        if (tasks == null) {
+            tasks = readPage(page);
+            pages.put(page, tasks);
+        }
+        return tasks[record - page * PAGE_SIZE];
+    }
+
+    /** Reads the consecutive snapshot lines of one page with a single positional read. */
+    private Task[] readPage(int page) {
+        int first = page * PAGE_SIZE;
+        int last = Math.min(recordCount, first + PAGE_SIZE) - 1;
+        long start = offsets[first];
+        ByteBuffer buffer = ByteBuffer.allocate((int) (offsets[last] + lengths[last] - start));
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("Snapshot ended early");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading tasks from file.", e);
+        }
+
+        Task[] tasks = new Task[last - first + 1];
+        for (int r = first; r <= last; r++) {
+            int from = (int) (offsets[r] - start);
+            tasks[r - first] = MappedTaskLoader.parseTask(buffer, from, from + lengths[r]);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,466 @@
+package natto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads a text snapshot a window of bytes at a time.
+ *
+ * <p>Each window is read with positional reads into one buffer that is reused for the whole file.
+ * Lines are found by scanning its bytes, and the fields of a well-formed line are decoded straight
+ * from them: only the strings a task keeps are allocated, and date-times are parsed digit by digit.
+ * A line the fast path does not recognise is handed to {@link Storage#loadTaskArray(String)}, so
+ * malformed data fails exactly as it does there. Windows end on a line boundary, and the next one
+ * starts there.
+ *
+ * <p>The file is not memory-mapped. A mapping stays in place until the garbage collector frees its
+ * buffer, and on Windows a mapped file cannot be replaced, so the first snapshot written after
+ * loading would fail to move over the data file.
+ *
+ * <p>On a multi-core machine, a window of at least {@link #PARALLEL_THRESHOLD} bytes is cut into
+ * line-aligned chunks that are parsed on the common fork-join pool and then concatenated in file order.
+ */
+class MappedTaskLoader {
+    static final long MAX_WINDOW = 64L << 20;
+    static final long PARALLEL_THRESHOLD = 4L << 20;
+    /** Window for {@link #loadStreaming}: large enough to parse in parallel, small enough to hold as objects. */
+    static final long STREAMING_WINDOW = PARALLEL_THRESHOLD;
+
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final byte NEWLINE = '\n';
+    private static final byte[] HEADER = Storage.HEADER_PREFIX.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEYS = Storage.KEYS_PREFIX.getBytes(StandardCharsets.US_ASCII);
+    private static final int SEPARATOR_LENGTH = 3;
+
+    private final ByteBuffer buffer;
+    private byte[] scratch = new byte[256];
+    private long seq;
+
+    private MappedTaskLoader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads a text snapshot, appending its tasks to the given list.
+     *
+     * @param file Snapshot file to read.
+     * @param tasks List to append the tasks to.
+     * @return Last journal segment folded into the snapshot, or 0 if the file has no header.
+     * @throws IOException If the file cannot be read.
+     */
+    static long load(Path file, List<Task> tasks) throws IOException {
+        boolean isMultiCore = ForkJoinPool.getCommonPoolParallelism() > 1;
+        return load(file, tasks, MAX_WINDOW, isMultiCore ? PARALLEL_THRESHOLD : Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads a text snapshot into a list that does not keep the task objects, such as a view of a
+     * {@link ColumnarTaskStore}. The file is parsed a window of {@link #STREAMING_WINDOW} bytes at a time,
+     * so only the tasks of one window exist as objects at once, however large the file is.
+     *
+     * @param file Snapshot file to read.
+     * @param tasks List to append the tasks to.
+     * @return Last journal segment folded into the snapshot, or 0 if the file has no header.
+     * @throws IOException If the file cannot be read.
+     */
+    static long loadStreaming(Path file, List<Task> tasks) throws IOException {
+        boolean isMultiCore = ForkJoinPool.getCommonPoolParallelism() > 1;
+        return load(file, tasks, STREAMING_WINDOW, isMultiCore ? PARALLEL_THRESHOLD : Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads a text snapshot, at most {@code window} bytes at a time.
+     *
+     * @param file Snapshot file to read.
+     * @param tasks List to append the tasks to.
+     * @param window Largest number of bytes read at once; must exceed the longest line.
+     * @param parallelThreshold Smallest window that is parsed in parallel.
+     * @return Last journal segment folded into the snapshot, or 0 if the file has no header.
+     * @throws IOException If the file cannot be read.
+     */
+    static long load(Path file, List<Task> tasks, long window, long parallelThreshold) throws IOException {
+        long seq = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(window, size));
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(window, size - position);
+                readWindow(channel, buffer, position, length);
+                boolean isLastWindow = position + length == size;
+
+                Chunk parsed = length >= parallelThreshold
+                        ? parseParallel(buffer, isLastWindow)
+                        : new MappedTaskLoader(buffer).parseChunk(0, length, isLastWindow);
+                if (parsed.consumed == 0) {
+                    throw new IOException("Line longer than " + window + " bytes at offset " + position);
+                }
+                tasks.addAll(parsed.tasks);
+                seq = Math.max(seq, parsed.seq);
+                position += parsed.consumed;
+            }
+        }
+        return seq;
+    }
+
+    /**
+     * Cuts a window into line-aligned chunks, parses them on the common fork-join pool and joins the
+     * results in order. Every chunk but the last ends right after a newline.
+     */
+    private static Chunk parseParallel(ByteBuffer window, boolean isLastWindow) {
+        int limit = window.limit();
+        int chunkCount = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD);
+        int[] bounds = new int[chunkCount + 1];
+        for (int k = 1; k < chunkCount; k++) {
+            int target = Math.max((int) ((long) limit * k / chunkCount), bounds[k - 1]);
+            bounds[k] = nextLineStart(window, target, limit);
+        }
+        bounds[chunkCount] = limit;
+
+        List<ForkJoinTask<Chunk>> parts = new ArrayList<>(chunkCount);
+        for (int k = 0; k < chunkCount; k++) {
+            int from = bounds[k];
+            int to = bounds[k + 1];
+            boolean isLast = k == chunkCount - 1;
+            parts.add(ForkJoinPool.commonPool().submit(() ->
+                    new MappedTaskLoader(window.duplicate()).parseChunk(from, to, isLast && isLastWindow)));
+        }
+
+        Chunk joined = new Chunk(new ArrayList<>(), 0, 0);
+        for (ForkJoinTask<Chunk> part : parts) {
+            Chunk chunk = part.join();
+            joined.tasks.addAll(chunk.tasks);
+            joined.seq = Math.max(joined.seq, chunk.seq);
+            if (chunk.consumed > 0) {
+                joined.consumed = chunk.consumed;
+            }
+        }
+        return joined;
+    }
+
+    /**
+     * Decodes a single task line from any buffer, such as a page read by {@link LazyTaskStore}.
+     *
+     * @param buffer Buffer holding the line.
+     * @param from Index of the first byte of the line.
+     * @param to Index just past the last byte of the line, excluding the newline.
+     * @return The decoded task.
+     * @throws IllegalArgumentException If the line is not a valid task.
+     */
+    static Task parseTask(ByteBuffer buffer, int from, int to) {
+        MappedTaskLoader loader = new MappedTaskLoader(buffer);
+        int s = loader.skipBlanks(from, to);
+        int e = loader.trimBlanks(s, to);
+        Task task = loader.parseTask(s, e);
+        return task != null ? task : Storage.loadTaskArray(loader.decode(from, to));
+    }
+
+    /**
+     * Finds where each task line of a text snapshot starts and how long it is, skipping the header lines
+     * and blank lines. Nothing is decoded.
+     *
+     * @param channel Open snapshot file to scan.
+     * @param sink Receives the file offset and length, excluding the line terminator, of each task line.
+     * @return Last journal segment folded into the snapshot, or 0 if the file has no header.
+     * @throws IOException If the file cannot be read.
+     */
+    static long scanLines(FileChannel channel, LineSink sink) throws IOException {
+        long seq = 0;
+        long size = channel.size();
+        ByteBuffer window = ByteBuffer.allocate((int) Math.min(STREAMING_WINDOW, size));
+        MappedTaskLoader loader = new MappedTaskLoader(window);
+        long position = 0;
+        while (position < size) {
+            int limit = (int) Math.min(STREAMING_WINDOW, size - position);
+            readWindow(channel, window, position, limit);
+            boolean isLastWindow = position + limit == size;
+            int lineStart = 0;
+            for (int i = 0; i <= limit; i++) {
+                boolean isLineEnd = i < limit ? window.get(i) == NEWLINE : isLastWindow && lineStart < limit;
+                if (!isLineEnd) {
+                    continue;
+                }
+                int s = loader.skipBlanks(lineStart, i);
+                int e = loader.trimBlanks(s, i);
+                if (loader.startsWith(s, e, HEADER)) {
+                    seq = Long.parseLong(loader.decode(s + HEADER.length, e).trim());
+                } else if (s < e && !loader.startsWith(s, e, KEYS)) {
+                    sink.accept(position + lineStart, loader.trimBlanks(lineStart, i) - lineStart);
+                }
+                lineStart = i + 1;
+            }
+            if (lineStart == 0) {
+                throw new IOException("Line longer than " + STREAMING_WINDOW + " bytes at offset " + position);
+            }
+            position += Math.min(lineStart, limit);
+        }
+        return seq;
+    }
+
+    /**
+     * Fills the start of the buffer with {@code length} bytes of the file from {@code position}, leaving
+     * its limit just after them.
+     */
+    private static void readWindow(FileChannel channel, ByteBuffer buffer, long position, int length)
+            throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("File ended early at offset " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+    }
+
+    /** Returns the index just past the first newline at or after {@code from}, or {@code limit}. */
+    private static int nextLineStart(ByteBuffer window, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (window.get(i) == NEWLINE) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Parses every complete line in {@code [from, to)}.
+     * A trailing partial line is left for the next window unless this is the end of the file.
+     */
+    private Chunk parseChunk(int from, int to, boolean isEndOfFile) {
+        List<Task> tasks = new ArrayList<>();
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == NEWLINE) {
+                parseLine(tasks, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (isEndOfFile && lineStart < to) {
+            parseLine(tasks, lineStart, to);
+            lineStart = to;
+        }
+        return new Chunk(tasks, lineStart == from ? 0 : lineStart, seq);
+    }
+
+    private void parseLine(List<Task> tasks, int start, int end) {
+        int s = skipBlanks(start, end);
+        int e = trimBlanks(s, end);
+        if (s == e) {
+            return;
+        }
+        if (startsWith(s, e, HEADER)) {
+            seq = Long.parseLong(decode(s + HEADER.length, e).trim());
+            return;
+        }
+        if (startsWith(s, e, KEYS)) {
+            return;
+        }
+
+        Task task = parseTask(s, e);
+        if (task == null) {
+            task = Storage.loadTaskArray(decode(start, end));
+        }
+        tasks.add(task);
+    }
+
+    /**
+     * Decodes a line of the form {@code TYPE | DONE | DESCRIPTION[ | FIELD...]}.
+     *
+     * @return The task, or null if the line is not in the exact form the fast path expects.
+     */
+    private Task parseTask(int start, int end) {
+        if (end - start < 8 || !isSeparator(start + 1) || !isSeparator(start + 5)) {
+            return null;
+        }
+        byte type = buffer.get(start);
+        boolean isDone = buffer.get(start + 4) == '1';
+        int descStart = start + 8;
+
+        Task task;
+        switch (type) {
+        case 'T':
+            task = new Todo(decodeTrimmed(descStart, end));
+            break;
+        case 'D': {
+            int sep = lastSeparator(descStart, end);
+            LocalDateTime by = sep < 0 ? null : parseDateTime(sep + SEPARATOR_LENGTH, end);
+            if (by == null) {
+                return null;
+            }
+            task = new Deadline(decodeTrimmed(descStart, sep), by);
+            break;
+        }
+        case 'E': {
+            int sep = lastSeparator(descStart, end);
+            if (sep < 0) {
+                return null;
+            }
+            int fieldStart = sep + SEPARATOR_LENGTH;
+            int dash = indexOf('-', indexOf('T', fieldStart, end), end);
+            LocalDateTime from = dash < 0 ? null : parseDateTime(fieldStart, dash);
+            LocalDateTime to = dash < 0 ? null : parseDateTime(dash + 1, end);
+            if (from == null || to == null) {
+                return null;
+            }
+            task = new Event(decodeTrimmed(descStart, sep), from, to);
+            break;
+        }
+        case 'C': {
+            int addressSep = lastSeparator(descStart, end);
+            int emailSep = addressSep < 0 ? -1 : lastSeparator(descStart, addressSep);
+            int phoneSep = emailSep < 0 ? -1 : lastSeparator(descStart, emailSep);
+            if (phoneSep < 0) {
+                return null;
+            }
+            task = new Contact(decodeTrimmed(descStart, phoneSep),
+                    decodeTrimmed(phoneSep + SEPARATOR_LENGTH, emailSep),
+                    decodeTrimmed(emailSep + SEPARATOR_LENGTH, addressSep),
+                    decodeTrimmed(addressSep + SEPARATOR_LENGTH, end));
+            break;
+        }
+        default:
+            return null;
+        }
+
+        if (isDone) {
+            task.mark();
+        }
+        return task;
+    }
+
+    /**
+     * Parses an ISO date-time as written by {@link LocalDateTime#toString()}, either
+     * {@code yyyy-MM-ddTHH:mm} or {@code yyyy-MM-ddTHH:mm:ss}.
+     *
+     * @return The date-time, or null if the bytes are in any other form.
+     */
+    private LocalDateTime parseDateTime(int start, int end) {
+        int s = skipBlanks(start, end);
+        int e = trimBlanks(s, end);
+        int length = e - s;
+        if ((length != 16 && length != 19) || buffer.get(s + 4) != '-' || buffer.get(s + 7) != '-'
+                || buffer.get(s + 10) != 'T' || buffer.get(s + 13) != ':') {
+            return null;
+        }
+        if (length == 19 && buffer.get(s + 16) != ':') {
+            return null;
+        }
+        int year = digits(s, 4);
+        int month = digits(s + 5, 2);
+        int day = digits(s + 8, 2);
+        int hour = digits(s + 11, 2);
+        int minute = digits(s + 14, 2);
+        int second = length == 19 ? digits(s + 17, 2) : 0;
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    /** Returns the value of {@code count} ASCII digits, or -1 if any byte is not a digit. */
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = buffer.get(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private boolean isSeparator(int i) {
+        return buffer.get(i) == ' ' && buffer.get(i + 1) == '|' && buffer.get(i + 2) == ' ';
+    }
+
+    /** Returns the start of the last {@code " | "} in the range, or -1 if there is none. */
+    private int lastSeparator(int start, int end) {
+        for (int i = end - SEPARATOR_LENGTH; i >= start; i--) {
+            if (isSeparator(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(char c, int start, int end) {
+        if (start < 0) {
+            return -1;
+        }
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipBlanks(int start, int end) {
+        while (start < end && (buffer.get(start) & 0xff) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimBlanks(int start, int end) {
+        while (end > start && (buffer.get(end - 1) & 0xff) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private String decodeTrimmed(int start, int end) {
+        int s = skipBlanks(start, end);
+        return decode(s, trimBlanks(s, end));
+    }
+
+    /** Decodes UTF-8 bytes of the window through a reused scratch array. */
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /** Tasks parsed from one chunk, and the window offset up to which it consumed whole lines. */
+    private static class Chunk {
+        final List<Task> tasks;
+        int consumed;
+        long seq;
+
+        Chunk(List<Task> tasks, int consumed, long seq) {
+            this.tasks = tasks;
+            this.consumed = consumed;
+            this.seq = seq;
+        }
+    }
+
+    /** Receives the position of each task line found by {@link #scanLines(FileChannel, LineSink)}. */
+    interface LineSink {
+        void accept(long offset, int length);
+    }
+}
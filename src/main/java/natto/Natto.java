@@ -1,179 +1,107 @@
 package natto;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
-import javafx.application.Platform;
-
-
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * Represents an application-specific exception for Natto.
- */
-class NattoException extends Exception {
-    public NattoException(String message) {
-        super(message);
-    }
-}
-
-/**
- * Represents a task with a name and completion status.
+ * Represents the main application logic for Natto.
  */
-class Task {
-    private String name;
-    private boolean isDone;
-
-    /**
-     * Creates a task with the given name.
-     *
-     * @param name Name/description of the task.
-     */
-    public Task(String name) {
-        assert name != null : "Task name should not be null";
-        assert !name.trim().isEmpty() : "Task name should not be empty";
-        this.name = name;
-        this.isDone = false;
-    }
-
-    /**
-     * Marks the task as done.
-     */
-    public void mark() {
-        this.isDone = true;
-    }
+public class Natto {
+    private static final String SAVE_PATH = "data/NatData.txt";
+    private static final String DURABILITY_PROPERTY = "natto.durability";
+    private static final String FORMAT_PROPERTY = "natto.format";
+    private static final String TASK_LIST_PROPERTY = "natto.tasklist";
+    private static final String BATCH_FLAG = "--batch";
 
-    /**
-     * Marks the task as not done.
-     */
-    public void unmark() {
-        this.isDone = false;
-    }
+    private final Ui ui = new Ui();
+    private final CommandRegistry commands = CommandRegistry.withBuiltIns();
+    private final Storage storage;
+    private final TaskListMode mode;
+    private TaskList tasks;
+    private boolean isExit;
+    /** Problems found while starting up, such as an unreadable data file, to be shown with the greeting. */
+    private final List<String> startupProblems = new ArrayList<>();
 
     /**
-     * Returns the string representation of the task for display.
-     *
-     * @return Display string of the task.
+     * Constructs a Natto instance and loads stored tasks.
+     * If loading fails, the unreadable files are moved aside and an empty task list is created.
      */
-    public boolean isDone() {
-        return isDone;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    @Override
-    public String toString() {
-        if (isDone) {
-            return "[X] " + this.name;
-        } else {
-            return "[ ] " + this.name;
-        }
+    public Natto() {
+        this(SAVE_PATH);
     }
-}
-
-/**
- * Represents a task that must be done by a specific date/time.
- */
-class Deadline extends Task {
-
-    protected LocalDateTime by;
 
     /**
-     * Creates a deadline task with a description and due date/time.
+     * Constructs a Natto instance that keeps its tasks in the given data file.
      *
-     * @param description Description of the deadline task.
-     * @param by Due date/time.
+     * @param savePath Path of the data file.
      */
-    public Deadline(String description, LocalDateTime by) {
-        super(description);
-        assert by != null : "Deadline 'by' should not be null";
-        this.by = by;
+    Natto(String savePath) {
+        storage = new Storage(savePath, readSetting(DURABILITY_PROPERTY, Durability::parse, Durability.values()),
+                readSetting(FORMAT_PROPERTY, SnapshotFormat::parse, SnapshotFormat.values()));
+        mode = readSetting(TASK_LIST_PROPERTY, TaskListMode::parse, TaskListMode.values());
+        tasks = loadTaskList();
     }
 
     /**
-     * Returns the string representation of a deadline for display.
+     * Reads a setting from a system property. A value that is not one of the choices does not stop
+     * Natto from starting: the default is used instead, and the greeting says so.
      *
-     * @return Display string of the deadline.
+     * @param property Name of the system property.
+     * @param parse Parser for the value, which gives the default for null.
+     * @param choices Every valid setting, to list in the message.
+     * @return The setting.
      */
-    @Override
-    public String toString() {
-        DateTimeFormatter schoolDateFormat = DateTimeFormatter.ofPattern("MMM dd yyyy");
-        return "[D]" + super.toString() + " (by: " + by.format(schoolDateFormat) + ")";
+    private <T extends Enum<T>> T readSetting(String property, Function<String, T> parse, T[] choices) {
+        String value = System.getProperty(property);
+        try {
+            return parse.apply(value);
+        } catch (IllegalArgumentException e) {
+            T fallback = parse.apply(null);
+            String names = Arrays.stream(choices).map(Natto::settingName).collect(Collectors.joining(", "));
+            startupProblems.add("Ignoring -D" + property + "=" + value + ", which is not one of: " + names
+                    + ".\nUsing " + settingName(fallback) + " instead.");
+            return fallback;
+        }
     }
-}
 
-/**
- * Represents a simple to-do task without any date/time.
- */
-class Todo extends Task {
-
-    public Todo(String description) {
-        super(description);
+    private static String settingName(Enum<?> setting) {
+        return setting.name().toLowerCase().replace('_', '-');
     }
 
-    @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    private TaskList loadTaskList() {
+        try {
+            return storage.loadTaskList(mode);
+        } catch (NattoException e) {
+            startupProblems.add(setAsideUnreadableData(e));
+            return mode == TaskListMode.LAZY ? new TaskList() : new TaskList(List.of(), mode);
+        }
     }
-}
-
-/**
- * Represents an event task with a start and end date/time.
- */
-class Event extends Task {
-
-    protected LocalDateTime from;
-    protected LocalDateTime to;
 
     /**
-     * Creates an event with a description, start time, and end time.
+     * Keeps a data file that could not be loaded from being overwritten by the empty list that
+     * replaces it.
      *
-     * @param description Description of the event.
-     * @param from Start date/time.
-     * @param to End date/time.
-     */
-    public Event(String description, LocalDateTime from, LocalDateTime to) {
-        super(description);
-        assert from != null : "Event 'from' should not be null";
-        assert to != null : "Event 'to' should not be null";
-        this.from = from;
-        this.to = to;
-    }
-
-    @Override
-    public String toString() {
-        DateTimeFormatter schoolDateFormat = DateTimeFormatter.ofPattern("MMM dd yyyy");
-        DateTimeFormatter schoolTimeFormat = DateTimeFormatter.ofPattern("HH:mm");
-        return "[E]" + super.toString()
-                + " (from: " + from.format(schoolDateFormat) + " " + from.format(schoolTimeFormat)
-                + " to: " + to.format(schoolTimeFormat) + ")";
-    }
-}
-
-/**
- * Represents the main application logic for Natto.
- */
-public class Natto {
-    private static final String SAVE_PATH = "data/NatData.txt";
-
-    private static final String CREATOR_NAME = "Kemango";
-    private static final String CREATOR_NUM = "8283 6964";
-    private static final String CREATOR_EMAIL = "e1398747@u.nus.edu";
-
-    private final Ui ui = new Ui();
-    private final Storage storage = new Storage(SAVE_PATH);
-    private TaskList tasks;
-
-    /**
-     * Constructs a Natto instance and loads stored tasks.
-     * If loading fails, an empty task list is created.
+     * @return Message telling the user what happened.
      */
-    public Natto() {
+    private String setAsideUnreadableData(NattoException loadError) {
         try {
-            tasks = new TaskList(storage.loadTasks());
+            String movedTo = storage.moveAside();
+            if (movedTo == null) {
+                return loadError.getMessage() + "\nStarting with an empty list.";
+            }
+            return loadError.getMessage() + "\nYour saved tasks could not be read, so the file was moved to "
+                    + movedTo + " and Natto started with an empty list.";
         } catch (NattoException e) {
-            tasks = new TaskList();
+            return loadError.getMessage() + "\n" + e.getMessage();
         }
     }
     /**
@@ -182,14 +110,49 @@ public class Natto {
      * @return Greeting message.
      */
     public String getGreeting() {
-        ui.printGreeting();
+        ui.printGreeting(startupProblems.isEmpty() ? null : String.join("\n\n", startupProblems));
         return ui.getLastOutput();
     }
+    /**
+     * Starts the command-line interface. With {@code --batch [FILE]}, runs the commands in the file,
+     * or on standard input, as one batch instead.
+     *
+     * @param args Command-line arguments.
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(BATCH_FLAG)) {
+            runBatch(args.length > 1 ? args[1] : null);
+            return;
+        }
         new Natto().run();
     }
+
+    private static void runBatch(String scriptPath) {
+        try {
+            List<String> lines;
+            if (scriptPath != null) {
+                lines = Files.readAllLines(Paths.get(scriptPath), StandardCharsets.UTF_8);
+            } else {
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                lines = in.lines().toList();
+            }
+            Natto natto = new Natto();
+            natto.startupProblems.forEach(System.err::println);
+            try {
+                natto.executeBatch(lines);
+            } finally {
+                natto.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot read batch script: " + e.getMessage());
+            System.exit(1);
+        } catch (NattoException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
     /**
-     * Runs the main application loop, processing user commands until "bye" is received.
+     * Runs the main application loop, processing user commands until one asks to exit.
      */
     public void run() {
         getGreeting();
@@ -197,210 +160,137 @@ public class Natto {
         while (true) {
             String input = ui.readCommand();
 
-            if (input == null || input.trim().isEmpty()) {
+            if (input == null) {
+                break;
+            }
+            if (input.trim().isEmpty()) {
                 continue;
             }
 
             getResponse(input);
 
-            if ("bye".equals(input.trim())) {
+            if (isExit()) {
                 break;
             }
         }
+        close();
     }
     /**
-     * Processes a user input command and returns the corresponding response.
+     * Processes a user input command and returns the corresponding response. Natto does not stop
+     * itself when the command is "bye"; the caller checks {@link #isExit()} and closes its own UI.
      *
      * @param input User input command.
      * @return Response message after processing the command.
      */
     public String getResponse(String input) {
+        isExit = false;
         if (input == null || input.trim().isEmpty()) {
             return "";
         }
 
-        String commandWord = Parser.getCommandWord(input);
-
         try {
-            switch (commandWord) {
-            case "bye":
-                ui.printGoodbye();
-                Platform.exit();
-                return ui.getLastOutput();
-
-            case "list":
-                implementList(input);
-                return ui.getLastOutput();
-
-            case "mark":
-                implementMark(input);
-                return ui.getLastOutput();
-
-            case "unmark":
-                implementUnmark(input);
-                return ui.getLastOutput();
-
-            case "delete":
-                implementDelete(input);
-                return ui.getLastOutput();
-
-            case "todo":
-                implementTodo(input);
-                return ui.getLastOutput();
-
-            case "deadline":
-                implementDeadline(input);
-                return ui.getLastOutput();
-
-            case "event":
-                implementEvent(input);
-                return ui.getLastOutput();
-
-            case "find":
-                implementFind(input);
-                return ui.getLastOutput();
-
-            case "creator":
-                contactCreator(input);
-                return ui.getLastOutput();
-
-            case "contact":
-                implementContact(input);
-                return ui.getLastOutput();
-
-            default:
-                throw new NattoException("Please use a keyword like: todo, deadline, event, list");
-            }
+            Command command = commands.parse(input, tasks);
+            command.execute(tasks, ui, storage);
+            isExit = command.isExit();
+            return ui.getLastOutput();
         } catch (NattoException e) {
             ui.printError(e.getMessage() + "\nMeow!! \uD83D\uDE40");
             return ui.getLastOutput();
         }
     }
-    /**
-     * Handles the list command to display all tasks.
-     *
-     * @param input Full user input string.
-     * @throws NattoException If the input format is invalid.
-     */
-    private void implementList(String input) throws NattoException {
-        if (!input.trim().equals("list")) {
-            throw new NattoException("list keyword works alone");
-        }
-        ui.printList(tasks.getAll());
-    }
 
     /**
-     * Handles the mark command and saves the updated task list.
+     * Returns whether the last command given to {@link #getResponse(String)} asked Natto to exit.
      *
-     * @param input Full user input string.
-     * @throws NattoException If the index is invalid.
+     * @return True after "bye" has run.
      */
-    private void implementMark(String input) throws NattoException {
-        int index = Parser.parseIndex(input, tasks.size());
-        assert index >= 0 && index < tasks.size() : "Parser should return a valid index";
-
-        tasks.get(index).mark();
-        ui.printMark(tasks.getAll(), index);
-        storage.saveTasks(tasks.getAll());
+    public boolean isExit() {
+        return isExit;
     }
 
     /**
-     * Handles the unmark command and saves the updated task list.
+     * Runs many commands as one batch. The commands change only the in-memory task list, and all of
+     * their changes are saved once at the end. If any command fails, none of the batch is kept: the
+     * task list is reloaded as it was before the batch. Blank lines are skipped, and a "bye" ends
+     * the batch early.
      *
-     * @param input Full user input string.
-     * @throws NattoException If the index is invalid.
+     * @param lines Commands, one per line.
+     * @return The response to each command, in order.
+     * @throws NattoException If a command fails or the result cannot be saved; nothing is changed.
      */
-    private void implementUnmark(String input) throws NattoException {
-        int index = Parser.parseIndex(input, tasks.size());
-        tasks.get(index).unmark();
-        ui.printUnmark(tasks.getAll(), index);
-        storage.saveTasks(tasks.getAll());
-    }
-
-    /**
-     * Handles the delete command and saves the updated task list.
-     *
-     * @param input Full user input string.
-     * @throws NattoException If the index is invalid.
-     */
-    private void implementDelete(String input) throws NattoException {
-        int index = Parser.parseIndex(input, tasks.size());
-        Task removed = tasks.remove(index);
-        ui.printDelete(removed, tasks.size());
-        storage.saveTasks(tasks.getAll());
-    }
-
-    /**
-     * Handles the todo command and saves the updated task list.
-     *
-     * @param input Full user input string.
-     * @throws NattoException If the todo description is missing.
-     */
-    private void implementTodo(String input) throws NattoException {
-        String desc = Parser.parseTodo(input);
-        Todo todo = new Todo(desc);
-
-        tasks.add(todo);
-        ui.printAdd(todo, tasks.size());
-        storage.saveTasks(tasks.getAll());
+    public List<String> executeBatch(List<String> lines) throws NattoException {
+        List<String> responses = new ArrayList<>(lines.size());
+        int lineNumber = 0;
+        storage.flush();
+        storage.beginBatch();
+        try {
+            for (String line : lines) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                Command command = commands.parse(line, tasks);
+                command.execute(tasks, ui, storage);
+                responses.add(ui.getLastOutput());
+                if (command.isExit()) {
+                    break;
+                }
+            }
+            lineNumber = 0;
+            storage.endBatch(tasks);
+            return responses;
+        } catch (NattoException | RuntimeException e) {
+            storage.abortBatch();
+            String where = lineNumber > 0 ? "Line " + lineNumber + ": " : "";
+            String message = where + e.getMessage() + "\nThe batch was rolled back; nothing was saved.";
+            try {
+                reloadTaskList();
+            } catch (NattoException reloadError) {
+                // The list still holds the batch's changes, which later journal records must not be applied over.
+                storage.disableSaving();
+                message += "\nThe tasks could not be reloaded afterwards (" + reloadError.getMessage()
+                        + "), so changes will not be saved until Natto is restarted.";
+            }
+            throw new NattoException(message);
+        }
     }
 
     /**
-     * Handles the deadline command and saves the updated task list.
+     * Replaces the task list with the one saved on disk. Unlike loading at startup, a failure leaves the
+     * data file where it is, since the file was readable when this session started.
      *
-     * @param input Full user input string.
-     * @throws NattoException If the deadline format is invalid.
+     * @throws NattoException If the data file cannot be loaded; the task list is then left as it was.
      */
-    private void implementDeadline(String input) throws NattoException {
-        Deadline deadline = Parser.parseDeadline(input);
-
-        tasks.add(deadline);
-        ui.printAdd(deadline, tasks.size());
-        storage.saveTasks(tasks.getAll());
-    }
-    /**
-     * Handles the event command and saves the updated task list.
-     *
-     * @param input Full user input string.
-     * @throws NattoException If the event format is invalid.
-     */
-    private void implementEvent(String input) throws NattoException {
-        Event event = Parser.parseEvent(input);
-
-        tasks.add(event);
-        ui.printAdd(event, tasks.size());
-        storage.saveTasks(tasks.getAll());
+    private void reloadTaskList() throws NattoException {
+        TaskList reloaded = storage.loadTaskList(mode);
+        try {
+            tasks.close();
+        } catch (IOException closeError) {
+            System.err.println("Could not close the task list: " + closeError.getMessage());
+        }
+        tasks = reloaded;
     }
 
     /**
-     * Handles the find command to search for tasks containing a keyword.
-     *
-     * @param input Full user input string.
-     * @throws NattoException If the find format is invalid.
+     * Writes every change still waiting to be saved to disk, for when Natto is about to exit.
+     * Changes made afterwards are not saved.
      */
-    private void implementFind(String input) throws NattoException {
-        String keyword = Parser.parseFind(input);
-        ui.printFind(tasks, keyword);
+    public void close() {
+        try {
+            storage.close();
+        } catch (NattoException e) {
+            System.err.println(e.getMessage());
+        }
     }
 
     /**
-     * Handles the contact command to display creator's contact information.
+     * Adds a command, for plugins that extend Natto.
      *
-     * @param input Full user input string.
-     * @throws NattoException If the input format is invalid.
+     * @param word Command word that invokes it.
+     * @param handler Handler that parses the command.
+     * @throws IllegalArgumentException If the word is already taken.
      */
-    private void contactCreator(String input) throws NattoException {
-        if (!input.trim().equals("creator")) {
-            throw new NattoException("contact keyword works alone");
-        }
-
-        ui.printContactCreator(CREATOR_NAME, CREATOR_NUM, CREATOR_EMAIL);
-    }
-
-    private void implementContact(String input) throws NattoException {
-        Contact c = Parser.parseContact(input);
-        tasks.add(c);
-        ui.printAdd(c, tasks.size());
-        storage.saveTasks(tasks.getAll());
+    public void registerCommand(String word, CommandHandler handler) {
+        commands.register(word, handler);
     }
 }
@@ -0,0 +1,12 @@
+package natto;
+
+/**
+ * Represents an application-specific exception for Natto.
+ */
+public class NattoException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public NattoException(String message) {
+        super(message);
+    }
+}
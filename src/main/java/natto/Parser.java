@@ -4,6 +4,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import natto.CommandTokenizer.Group;
+import natto.CommandTokenizer.Marker;
 
 /**
  * Parses user input into commands and task details.
@@ -14,6 +20,7 @@ public class Parser {
             DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
     private static final DateTimeFormatter TIME_FORMATTER =
             DateTimeFormatter.ofPattern("HHmm");
+    private static final String ANY_MARKER = "/any";
     /**
      * Extracts the command word (first token) from the user input.
      *
@@ -21,7 +28,7 @@ public class Parser {
      * @return Command word (e.g. "todo", "deadline", "event").
      */
     public static String getCommandWord(String input) {
-        return input.trim().split(" ")[0];
+        return new CommandTokenizer(input).commandWord();
     }
 
     /**
@@ -33,11 +40,66 @@ public class Parser {
      * @throws NattoException If the index is missing, not a number, or out of bounds.
      */
     public static int parseIndex(String input, int size) throws NattoException {
-        String indexString = extractIndexArgument(input);
+        String indexString = extractIndexArgument(new CommandTokenizer(input));
         int userIndex = parseInteger(indexString);
         return validateAndConvertIndex(userIndex, size);
     }
 
+    /**
+     * Parses which task a command like "delete 3" or "delete #17" refers to.
+     * A plain number is a position in the list; a number after '#' is a task ID.
+     *
+     * @param input Full user input.
+     * @param tasks Task list, to validate the position or look up the ID.
+     * @return Zero-based index of the task to operate on.
+     * @throws NattoException If the argument is missing, not a number, or matches no task.
+     */
+    public static int parseTaskIndex(String input, TaskList tasks) throws NattoException {
+        return parseTaskIndex(new CommandTokenizer(input), tasks);
+    }
+
+    /** Same as {@link #parseTaskIndex(String, TaskList)}, for a command already tokenized. */
+    static int parseTaskIndex(CommandTokenizer tokens, TaskList tasks) throws NattoException {
+        String argument = extractIndexArgument(tokens);
+        if (!argument.startsWith("#")) {
+            return validateAndConvertIndex(parseInteger(argument), tasks.size());
+        }
+
+        long id;
+        try {
+            id = Long.parseLong(argument.substring(1));
+        } catch (NumberFormatException e) {
+            throw new NattoException("Task ID must be a number after #.");
+        }
+        int index = tasks.indexOfId(id);
+        if (index < 0) {
+            throw new NattoException("No task has ID #" + id + ".");
+        }
+        return index;
+    }
+
+    /**
+     * Parses a range of list positions such as "200-400", both ends inclusive. A range running past
+     * the end of the list stops at its last task.
+     *
+     * @param range Range argument.
+     * @param size Current number of tasks.
+     * @return Zero-based index of the first task, and the index just past the last.
+     * @throws NattoException If the range is malformed, backwards, or starts past the end of the list.
+     */
+    static int[] parseRange(String range, int size) throws NattoException {
+        int dash = range.indexOf('-');
+        if (dash <= 0 || dash == range.length() - 1) {
+            throw new NattoException("A range looks like 200-400.");
+        }
+        int first = validateAndConvertIndex(parseInteger(range.substring(0, dash)), size);
+        int last = parseInteger(range.substring(dash + 1));
+        if (last <= first) {
+            throw new NattoException("The end of the range cannot be before its start.");
+        }
+        return new int[] {first, Math.min(last, size)};
+    }
+
     /**
      * Parses a todo command and extracts its description.
      *
@@ -46,11 +108,16 @@ public class Parser {
      * @throws NattoException If the description is missing or empty.
      */
     public static String parseTodo(String input) throws NattoException {
-        String[] parts = input.split(" ", 2);
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+        return parseTodo(new CommandTokenizer(input));
+    }
+
+    /** Same as {@link #parseTodo(String)}, for a command already tokenized. */
+    static String parseTodo(CommandTokenizer tokens) throws NattoException {
+        String desc = tokens.rest();
+        if (desc.isEmpty()) {
             throw new NattoException("The description of a todo cannot be empty.");
         }
-        return parts[1].trim();
+        return desc;
     }
 
     /**
@@ -62,13 +129,18 @@ public class Parser {
      * @throws NattoException If "/by" is missing, description is empty, or date format is invalid.
      */
     public static Deadline parseDeadline(String input) throws NattoException {
-        if (!input.contains("/by")) {
+        return parseDeadline(new CommandTokenizer(input));
+    }
+
+    /** Same as {@link #parseDeadline(String)}, for a command already tokenized. */
+    static Deadline parseDeadline(CommandTokenizer tokens) throws NattoException {
+        if (!tokens.has(Marker.BY)) {
             throw new NattoException("Natto.Deadline must have /by. "
                     + "Example: deadline [something] /by [yyyy-mm-dd HH]  ");
         }
 
-        String desc = input.substring(9, input.indexOf("/by")).trim();
-        String byString = input.substring(input.indexOf("/by") + 3).trim();
+        String desc = tokens.body(Group.DATE);
+        String byString = tokens.value(Marker.BY);
 
         if (desc.isEmpty()) {
             throw new NattoException("The description of a deadline cannot be empty.");
@@ -91,11 +163,16 @@ public class Parser {
      * @throws NattoException If "/from" or "/to" is missing, description is empty, or date format is invalid.
      */
     public static Event parseEvent(String input) throws NattoException {
-        ensureHasFromTo(input);
+        return parseEvent(new CommandTokenizer(input));
+    }
+
+    /** Same as {@link #parseEvent(String)}, for a command already tokenized. */
+    static Event parseEvent(CommandTokenizer tokens) throws NattoException {
+        ensureHasFromTo(tokens);
 
-        String desc = between(input, "event ", "/from").trim();
-        String fromString = between(input, "/from", "/to").trim();
-        String toString = after(input, "/to").trim();
+        String desc = tokens.body(Group.DATE);
+        String fromString = tokens.value(Marker.FROM);
+        String toString = tokens.value(Marker.TO);
 
         if (desc.isEmpty()) {
             throw new NattoException("The description of an event cannot be empty.");
@@ -115,14 +192,104 @@ public class Parser {
      * @throws NattoException If the keyword is missing or empty.
      */
     public static String parseFind(String input) throws NattoException {
-        String[] parts = input.split(" ", 2);
+        return parseFind(new CommandTokenizer(input));
+    }
+
+    /** Same as {@link #parseFind(String)}, for a command already tokenized. */
+    static String parseFind(CommandTokenizer tokens) throws NattoException {
+        String keyword = tokens.rest();
 
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+        if (keyword.isEmpty()) {
             throw new NattoException("Please provide a keyword to find.");
         }
 
-        return parts[1].trim();
+        return keyword;
     }
+    /**
+     * Parses a search command into the words to look for.
+     * Format: search WORD... [/any]
+     *
+     * @param input Full user input.
+     * @return Words to search for, without the "/any" marker.
+     * @throws NattoException If no words are given.
+     */
+    public static List<String> parseSearch(String input) throws NattoException {
+        return parseSearch(new CommandTokenizer(input));
+    }
+
+    /** Same as {@link #parseSearch(String)}, for a command already tokenized. */
+    static List<String> parseSearch(CommandTokenizer tokens) throws NattoException {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < tokens.argCount(); i++) {
+            String word = tokens.arg(i);
+            if (!word.equals(ANY_MARKER)) {
+                words.add(word);
+            }
+        }
+        if (words.isEmpty()) {
+            throw new NattoException("Please provide words to search for. Example: search book report /any");
+        }
+        return words;
+    }
+
+    /**
+     * Returns whether a search command asks for tasks matching any of its words, rather than all.
+     *
+     * @param input Full user input.
+     * @return True if the input contains the "/any" marker.
+     */
+    public static boolean isSearchAny(String input) {
+        return isSearchAny(new CommandTokenizer(input));
+    }
+
+    static boolean isSearchAny(CommandTokenizer tokens) {
+        return tokens.hasArg(ANY_MARKER);
+    }
+    /**
+     * Parses a command that takes a single date, such as "due 2026-03-10".
+     *
+     * @param input Full user input.
+     * @return The date.
+     * @throws NattoException If the date is missing or not in yyyy-mm-dd format.
+     */
+    public static LocalDate parseDate(String input) throws NattoException {
+        return parseDate(new CommandTokenizer(input));
+    }
+
+    /** Same as {@link #parseDate(String)}, for a command already tokenized. */
+    static LocalDate parseDate(CommandTokenizer tokens) throws NattoException {
+        if (tokens.argCount() != 1) {
+            throw new NattoException("Please provide one date. Example: " + tokens.commandWord() + " 2026-03-10");
+        }
+        return parseDay(tokens.arg(0));
+    }
+
+    /**
+     * Parses a command that takes a date range, such as "between 2026-03-01 2026-03-07".
+     * Both dates are inclusive.
+     *
+     * @param input Full user input.
+     * @return The first and last date of the range.
+     * @throws NattoException If either date is missing or invalid, or the range is backwards.
+     */
+    public static LocalDate[] parseDateRange(String input) throws NattoException {
+        return parseDateRange(new CommandTokenizer(input));
+    }
+
+    /** Same as {@link #parseDateRange(String)}, for a command already tokenized. */
+    static LocalDate[] parseDateRange(CommandTokenizer tokens) throws NattoException {
+        if (tokens.argCount() != 2) {
+            throw new NattoException("Please provide a start and end date. Example: "
+                    + tokens.commandWord() + " 2026-03-01 2026-03-07");
+        }
+        LocalDate first = parseDay(tokens.arg(0));
+        LocalDate last = parseDay(tokens.arg(1));
+        if (last.isBefore(first)) {
+            throw new NattoException("The end date cannot be before the start date.");
+        }
+        return new LocalDate[] {first, last};
+    }
+
     /**
      * Parses a contact command into a {@link Contact}.
      * Format: contact NAME p/PHONE e/EMAIL a/ADDRESS(optional)
@@ -132,78 +299,87 @@ public class Parser {
      * @throws NattoException If required fields are missing or empty.
      */
     public static Contact parseContact(String input) throws NattoException {
+        return parseContact(new CommandTokenizer(input));
+    }
+
+    /** Same as {@link #parseContact(String)}, for a command already tokenized. */
+    static Contact parseContact(CommandTokenizer tokens) throws NattoException {
         // contact NAME p/PHONE e/EMAIL a/ADDRESS(optional)
-        String args = input.substring("contact".length()).trim();
-        if (args.isEmpty()) {
+        if (tokens.argCount() == 0) {
             throw new NattoException("Usage: contact NAME p/PHONE e/EMAIL [a/ADDRESS]");
         }
 
-        String name = args.split(" p/")[0].trim();
+        String name = tokens.body(Group.CONTACT);
         if (name.isEmpty()) {
             throw new NattoException("Contact name cannot be empty.");
         }
 
-        String phone = extractAfter(args, "p/");
-        String email = extractAfter(args, "e/");
-        String address = extractAfterOptional(args, "a/");
+        String phone = extractAfter(tokens, Marker.PHONE);
+        String email = extractAfter(tokens, Marker.EMAIL);
+        String address = extractAfterOptional(tokens, Marker.ADDRESS);
 
         return new Contact(name, phone, email, address);
     }
     /** Extracts a datetime in either "yyyy-mm-dd" or "yyyy-mm-dd HHmm". */
     private static LocalDateTime parseDateTime(String s) throws NattoException {
-        if (s.matches("\\d{4}-\\d{2}-\\d{2}")) {
-            return LocalDate.parse(s).atStartOfDay();
-        }
-        if (s.matches("\\d{4}-\\d{2}-\\d{2} \\d{4}")) {
-            return LocalDateTime.parse(s, DATE_TIME_FORMATTER);
+        try {
+            if (CommandTokenizer.hasShape(s, "dddd-dd-dd")) {
+                return LocalDate.parse(s).atStartOfDay();
+            }
+            if (CommandTokenizer.hasShape(s, "dddd-dd-dd dddd")) {
+                return LocalDateTime.parse(s, DATE_TIME_FORMATTER);
+            }
+        } catch (DateTimeParseException e) {
+            throw new NattoException("Invalid date: " + s);
         }
         throw new NattoException("Invalid date format. Use yyyy-mm-dd or yyyy-mm-dd HHmm");
     }
-    /** Helper method to extract the value after a prefix (e.g. "p/") and ensure it's not empty */
-    private static String extractAfter(String args, String prefix) throws NattoException {
-        String[] parts = args.split(prefix);
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
-            throw new NattoException("Missing or empty value for " + prefix);
+    /** Parses a date in "yyyy-mm-dd" format. */
+    private static LocalDate parseDay(String s) throws NattoException {
+        if (!CommandTokenizer.hasShape(s, "dddd-dd-dd")) {
+            throw new NattoException("Invalid date format. Use yyyy-mm-dd");
         }
-        return parts[1].split(" ")[0].trim();
-    }
-    /** Similar to extractAfter but returns empty string if the field is optional and not provided */
-    private static String extractAfterOptional(String args, String prefix) {
-        String[] parts = args.split(prefix);
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
-            return "";
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new NattoException("Invalid date: " + s);
         }
-        return parts[1].split(" ")[0].trim();
     }
-    /** Extracts the substring between two markers. */
-    private static String between(String input, String left, String right) {
-        int start = input.indexOf(left) + left.length();
-        int end = input.indexOf(right);
-        return input.substring(start, end);
+    /** Helper method to extract the value after a marker (e.g. "p/") and ensure it's not empty */
+    private static String extractAfter(CommandTokenizer tokens, Marker marker) throws NattoException {
+        String value = tokens.value(marker);
+        if (value == null || value.isEmpty()) {
+            throw new NattoException("Missing or empty value for " + marker.text());
+        }
+        return value;
     }
-    /** Extracts the substring after a marker. */
-    private static String after(String input, String prefix) {
-        return input.substring(input.indexOf(prefix) + prefix.length());
+    /** Similar to extractAfter but returns empty string if the field is optional and not provided */
+    private static String extractAfterOptional(CommandTokenizer tokens, Marker marker) {
+        String value = tokens.value(marker);
+        return value == null ? "" : value;
     }
     /** Ensures that the input contains both "/from" and "/to" for event parsing. */
-    private static void ensureHasFromTo(String input) throws NattoException {
-        if (!input.contains("/from") || !input.contains("/to")) {
+    private static void ensureHasFromTo(CommandTokenizer tokens) throws NattoException {
+        if (!tokens.has(Marker.FROM) || !tokens.has(Marker.TO)) {
             throw new NattoException("Natto.Event must have /from and /to.");
         }
     }
     /** Parses the "to" part of an event, which can be either a time (HHmm) or a full datetime. */
     private static LocalDateTime parseEventTo(String toString, LocalDateTime from) throws NattoException {
-        if (toString.matches("\\d{4}")) {
-            LocalTime t = LocalTime.parse(toString, TIME_FORMATTER);
-            return LocalDateTime.of(from.toLocalDate(), t);
+        if (CommandTokenizer.hasShape(toString, "dddd")) {
+            try {
+                LocalTime t = LocalTime.parse(toString, TIME_FORMATTER);
+                return LocalDateTime.of(from.toLocalDate(), t);
+            } catch (DateTimeParseException e) {
+                throw new NattoException("Invalid time: " + toString);
+            }
         }
         return parseDateTime(toString);
     }
     /** Extracts the index argument from commands like "done 2" or "delete 3". */
-    private static String extractIndexArgument(String input) throws NattoException {
-        String[] parts = input.trim().split("\\s+");
-        ensureHasArgument(parts);
-        return parts[1];
+    private static String extractIndexArgument(CommandTokenizer tokens) throws NattoException {
+        ensureHasArgument(tokens);
+        return tokens.arg(0);
     }
     /** Parses a string into an integer, throwing a NattoException if it's not a valid number. */
     private static int parseInteger(String s) throws NattoException {
@@ -224,8 +400,8 @@ public class Parser {
         return zeroBased;
     }
     /** Ensures that the command has an argument (e.g. "done 2" has "2" as an argument). */
-    private static void ensureHasArgument(String[] parts) throws NattoException {
-        if (parts.length < 2) {
+    private static void ensureHasArgument(CommandTokenizer tokens) throws NattoException {
+        if (tokens.argCount() == 0) {
             throw new NattoException("Please specify a task index.");
         }
     }
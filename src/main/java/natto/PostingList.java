@@ -0,0 +1,209 @@
+package natto;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorted, growable array of task keys, as kept by the search indexes of a {@link TaskList}.
+ *
+ * <p>Removing a key only marks its entry in a bit set, so a key shared by many tasks, such as the
+ * trigram {@code "the"}, does not shift the whole array on every delete. Queries skip marked entries,
+ * and once half the entries are marked they are dropped in one pass, which costs O(1) per removal on
+ * average.
+ */
+class PostingList {
+    private long[] keys = new long[4];
+    /** Number of entries in {@code keys}, including removed ones. */
+    private int stored;
+    private int removedCount;
+    /** Bit {@code i} is set if entry {@code i} has been removed; null or short while none past its end is. */
+    private long[] removed;
+
+    int size() {
+        return stored - removedCount;
+    }
+
+    /**
+     * Adds a key. Keys are usually added in increasing order, which appends.
+     *
+     * @param key Key to add; adding a key already present has no effect.
+     */
+    void add(long key) {
+        if (stored == 0 || keys[stored - 1] < key) {
+            if (stored == keys.length) {
+                keys = Arrays.copyOf(keys, stored * 2);
+            }
+            keys[stored++] = key;
+            return;
+        }
+        int pos = Arrays.binarySearch(keys, 0, stored, key);
+        if (pos >= 0) {
+            if (isRemoved(pos)) {
+                removed[pos >> 6] &= ~(1L << pos);
+                removedCount--;
+            }
+            return;
+        }
+        compact();
+        if (stored == keys.length) {
+            keys = Arrays.copyOf(keys, stored * 2);
+        }
+        pos = Arrays.binarySearch(keys, 0, stored, key);
+        pos = -pos - 1;
+        System.arraycopy(keys, pos, keys, pos + 1, stored - pos);
+        keys[pos] = key;
+        stored++;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key Key to remove.
+     * @return Whether the key was present.
+     */
+    boolean remove(long key) {
+        int pos = Arrays.binarySearch(keys, 0, stored, key);
+        if (pos < 0 || isRemoved(pos)) {
+            return false;
+        }
+        if (pos == stored - 1) {
+            stored--;
+        } else {
+            if (removed == null || pos >> 6 >= removed.length) {
+                removed = Arrays.copyOf(removed == null ? new long[0] : removed, (keys.length >> 6) + 1);
+            }
+            removed[pos >> 6] |= 1L << pos;
+            removedCount++;
+        }
+        if (removedCount * 2 > stored) {
+            compact();
+        }
+        return true;
+    }
+
+    private boolean isRemoved(int pos) {
+        return removed != null && pos >> 6 < removed.length && (removed[pos >> 6] & (1L << pos)) != 0;
+    }
+
+    /** Drops the removed entries, moving the others together. */
+    private void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < stored; i++) {
+            if (!isRemoved(i)) {
+                keys[kept++] = keys[i];
+            }
+        }
+        stored = kept;
+        removedCount = 0;
+        removed = null;
+    }
+
+    /** Returns the keys that have not been removed, in increasing order. */
+    private long[] liveKeys() {
+        compact();
+        return Arrays.copyOf(keys, stored);
+    }
+
+    /**
+     * Appends every key, in increasing order, to the given list.
+     *
+     * @param out List to append to.
+     */
+    void addTo(List<Long> out) {
+        for (int i = 0; i < stored; i++) {
+            if (!isRemoved(i)) {
+                out.add(keys[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys present in every list. The shortest list drives the walk and each step gallops
+     * ahead in the longer ones, so a rare term intersected with a common one costs close to the size
+     * of the rare term's list.
+     *
+     * @param lists Lists to intersect; a null list counts as empty.
+     * @return Common keys in increasing order.
+     */
+    static long[] intersect(List<PostingList> lists) {
+        if (lists.isEmpty() || lists.contains(null)) {
+            return new long[0];
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        long[] result = lists.get(0).liveKeys();
+        int count = result.length;
+        for (int l = 1; l < lists.size() && count > 0; l++) {
+            count = lists.get(l).retainIn(result, count);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the keys present in at least one list.
+     *
+     * @param lists Lists to merge; null lists are skipped.
+     * @return All keys in increasing order, without duplicates.
+     */
+    static long[] union(List<PostingList> lists) {
+        long[] result = new long[0];
+        for (PostingList list : lists) {
+            if (list != null) {
+                result = list.mergeInto(result);
+            }
+        }
+        return result;
+    }
+
+    /** Keeps the first {@code count} entries of {@code result} that are also in this list. */
+    private int retainIn(long[] result, int count) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < stored; i++) {
+            from = gallop(from, result[i]);
+            if (from < stored && keys[from] == result[i]) {
+                if (!isRemoved(from)) {
+                    result[kept++] = result[i];
+                }
+                from++;
+            }
+        }
+        return kept;
+    }
+
+    /** Returns the first position at or after {@code from} whose key is at least {@code key}. */
+    private int gallop(int from, long key) {
+        int step = 1;
+        int hi = from;
+        while (hi < stored && keys[hi] < key) {
+            from = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        int pos = Arrays.binarySearch(keys, from, Math.min(hi + 1, stored), key);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    private long[] mergeInto(long[] other) {
+        long[] own = liveKeys();
+        long[] merged = new long[other.length + own.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < other.length || j < own.length) {
+            if (j == own.length || (i < other.length && other[i] < own[j])) {
+                merged[n++] = other[i++];
+            } else if (i == other.length || own[j] < other[i]) {
+                merged[n++] = own[j++];
+            } else {
+                merged[n++] = other[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(merged, n);
+    }
+}
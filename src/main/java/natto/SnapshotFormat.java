@@ -0,0 +1,26 @@
+package natto;
+
+/**
+ * On-disk format of the task snapshot file. Loading detects the format by itself;
+ * this only chooses how new snapshots are written.
+ */
+public enum SnapshotFormat {
+    /** One {@code " | "}-delimited line per task, readable and editable by hand. */
+    TEXT,
+    /** The compact {@link BinaryTaskCodec} format, much faster to load for large lists. */
+    BINARY;
+
+    /**
+     * Parses a format name such as {@code "text"} or {@code "binary"}.
+     *
+     * @param value Format name, case-insensitive; null or blank gives {@link #TEXT}.
+     * @return The matching format.
+     * @throws IllegalArgumentException If the name is not a known format.
+     */
+    public static SnapshotFormat parse(String value) {
+        if (value == null || value.isBlank()) {
+            return TEXT;
+        }
+        return valueOf(value.trim().toUpperCase());
+    }
+}
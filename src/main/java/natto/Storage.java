@@ -1,51 +1,302 @@
 package natto;
 
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles loading and saving of tasks to persistent storage.
+ * The data file holds a snapshot of the task list; every later mutation is appended as a single
+ * record to a {@link Journal} next to it, and the journal is replayed on top of the snapshot when loading.
+ * Once the journal grows past a record or size threshold, a background thread folds it into a new snapshot.
+ *
+ * <p>Journal writes happen on their own thread, so the caller only waits for the disk as far as the
+ * chosen {@link Durability} requires; {@link #flush()} waits for everything queued so far.
  */
 public class Storage {
+    static final int COMPACT_RECORD_THRESHOLD = 10_000;
+    static final long COMPACT_BYTE_THRESHOLD = 4L * 1024 * 1024;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String COMPACT_SUFFIX = ".compact.tmp";
+    private static final String BROKEN_SUFFIX = ".broken";
+    private static final String SAVING_DISABLED =
+            "Changes are not being saved, because the data file could not be read.";
+    static final String HEADER_PREFIX = "#journal ";
+    /** Starts the line after the header that holds the task keys, in the form {@link TaskKeys#format()} writes. */
+    static final String KEYS_PREFIX = "#keys ";
+
     private final String filePath;
+    private final Journal journal;
+    private final SnapshotFormat format;
+    private final int compactRecordThreshold;
+    private final long compactByteThreshold;
 
+    /**
+     * Held while the journal is sealed or the snapshot is replaced. A compaction holds it only for those
+     * two steps, never while it reads and writes snapshots, and appends only take it to open the journal.
+     */
+    private final Object snapshotLock = new Object();
+    /** Counts snapshot replacements, so a compaction can tell that a full save overtook it. */
+    private long snapshotGeneration;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "natto-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean isCompactionQueued = new AtomicBoolean();
+    /** How the loaded task list holds its tasks; compaction reads the snapshot into the same kind of store. */
+    private volatile TaskListMode mode = TaskListMode.ARRAY;
+    /** Whether mutations are being held in memory until {@link #endBatch(TaskList)}, instead of journaled. */
+    private boolean isInBatch;
+    /** Set when an unreadable data file could not be moved aside, so that it is never overwritten. */
+    private volatile boolean isSavingDisabled;
+
+    /**
+     * Creates a storage backed by the given data file, with batched durability, text snapshots
+     * and the default compaction thresholds.
+     *
+     * @param filePath Path of the snapshot data file.
+     */
     public Storage(String filePath) {
+        this(filePath, Durability.BATCHED, SnapshotFormat.TEXT);
+    }
+
+    /**
+     * Creates a storage backed by the given data file, with the default compaction thresholds.
+     *
+     * @param filePath Path of the snapshot data file.
+     * @param durability When journaled mutations are forced to disk.
+     * @param format Format new snapshots are written in.
+     */
+    public Storage(String filePath, Durability durability, SnapshotFormat format) {
+        this(filePath, durability, format, COMPACT_RECORD_THRESHOLD, COMPACT_BYTE_THRESHOLD);
+    }
+
+    /**
+     * Creates a storage backed by the given data file.
+     * A compaction starts once the journal holds either the given number of records or bytes.
+     *
+     * @param filePath Path of the snapshot data file.
+     * @param durability When journaled mutations are forced to disk.
+     * @param format Format new snapshots are written in.
+     * @param compactRecordThreshold Journal records that trigger a compaction.
+     * @param compactByteThreshold Journal size in bytes that triggers a compaction.
+     */
+    public Storage(String filePath, Durability durability, SnapshotFormat format,
+            int compactRecordThreshold, long compactByteThreshold) {
         this.filePath = filePath;
+        this.journal = new Journal(Paths.get(filePath), durability);
+        this.format = format;
+        this.compactRecordThreshold = compactRecordThreshold;
+        this.compactByteThreshold = compactByteThreshold;
     }
 
     /**
-     * Loads tasks from the data file.
+     * Loads tasks from the data file and replays any journaled mutations on top of them.
      *
      * @return List of tasks loaded from storage.
      * @throws NattoException If an error occurs while reading the file.
      */
     public List<Task> loadTasks() throws NattoException {
-        List<Task> taskList = new ArrayList<>();
+        return ((ArrayTaskStore) load(TaskListMode.ARRAY)).asList();
+    }
+
+    /**
+     * Loads tasks without reading them into memory: the returned list reads tasks from the data file
+     * as they are needed. Journaled mutations are replayed on top, as with {@link #loadTasks()}.
+     * A binary snapshot has no line index to page through, so it is still read eagerly.
+     *
+     * @return Task list backed by the data file.
+     * @throws NattoException If an error occurs while reading the file.
+     */
+    public TaskList loadTasksLazily() throws NattoException {
+        return loadTaskList(TaskListMode.LAZY);
+    }
+
+    /**
+     * Loads tasks into a task list held the given way, keeping the task IDs they were saved with.
+     *
+     * @param mode How to hold the tasks.
+     * @return The task list.
+     * @throws NattoException If an error occurs while reading the file.
+     */
+    public TaskList loadTaskList(TaskListMode mode) throws NattoException {
+        this.mode = mode;
+        return new TaskList(load(mode));
+    }
+
+    private TaskStore load(TaskListMode mode) throws NattoException {
+        TaskStore store = null;
+
+        synchronized (snapshotLock) {
+            try {
+                long[] snapshotSeq = new long[1];
+                store = openSnapshot(mode, snapshotSeq);
+                journal.open(snapshotSeq[0]);
+                journal.flush();
+                journal.addPendingRecords(journal.replay(snapshotSeq[0], Long.MAX_VALUE, new TaskStoreView(store)));
+            } catch (Exception e) {
+                // A lazy store would otherwise keep the data file open after the load has failed.
+                if (store instanceof LazyTaskStore) {
+                    try {
+                        ((LazyTaskStore) store).close();
+                    } catch (IOException closeError) {
+                        e.addSuppressed(closeError);
+                    }
+                }
+                throw new NattoException("Error loading tasks from file.");
+            }
+        }
+
+        maybeCompact();
+        return store;
+    }
+
+    /**
+     * Opens the snapshot, in whichever format it was written, as the given kind of task store, with the
+     * keys saved with it. A columnar store is filled as the snapshot is decoded, so the tasks never all
+     * exist as objects at once, and a lazy store leaves a text snapshot on disk to page in on demand.
+     *
+     * @param mode Kind of store to open; a binary snapshot has no line index, so it is read eagerly.
+     * @param snapshotSeq Receives the last journal segment folded into the snapshot, or 0.
+     */
+    private TaskStore openSnapshot(TaskListMode mode, long[] snapshotSeq) throws IOException {
         File f = new File(filePath);
 
+        if (mode == TaskListMode.LAZY && f.exists() && !BinaryTaskCodec.isBinary(f.toPath())) {
+            LazyTaskStore lazy = new LazyTaskStore(f.toPath());
+            try {
+                snapshotSeq[0] = lazy.getSnapshotSeq();
+                restoreKeys(lazy);
+            } catch (IOException | RuntimeException e) {
+                lazy.close();
+                throw e;
+            }
+            return lazy;
+        }
+        TaskStore store;
+        if (mode == TaskListMode.COLUMNAR || mode == TaskListMode.OFF_HEAP) {
+            // The task text is smaller than the file it is read from, so the arena does not grow while loading.
+            store = new ColumnarTaskStore(0, f.length(), mode == TaskListMode.OFF_HEAP);
+            snapshotSeq[0] = readSnapshot(new TaskStoreView(store), true);
+        } else {
+            List<Task> taskList = new ArrayList<>();
+            snapshotSeq[0] = readSnapshot(taskList, false);
+            store = TaskList.createStore(taskList, mode == TaskListMode.TREE ? mode : TaskListMode.ARRAY);
+        }
+        restoreKeys(store);
+        return store;
+    }
+
+    /** Gives the tasks just read from the snapshot the keys saved with them, if it has any. */
+    private void restoreKeys(TaskStore store) throws IOException {
+        File f = new File(filePath);
         if (!f.exists()) {
-            return taskList;
+            return;
+        }
+        TaskKeys keys = BinaryTaskCodec.isBinary(f.toPath())
+                ? BinaryTaskCodec.readKeys(f.toPath())
+                : readTextKeys(f);
+        if (keys != null) {
+            keys.restore(store);
         }
+    }
 
-        try (Scanner sc = new Scanner(f)) {
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().trim();
-                if (!line.isEmpty()) {
-                    taskList.add(loadTaskArray(line));
-                }
+    /**
+     * Reads the snapshot, in whichever format it was written, into the given list.
+     *
+     * @param isStreaming Whether the list does not keep the task objects, so a text snapshot should be
+     *     decoded a few megabytes at a time rather than in one pass over the whole file.
+     * @return Last journal segment folded into the snapshot, or 0 if there is none.
+     */
+    private long readSnapshot(List<Task> taskList, boolean isStreaming) throws IOException {
+        File f = new File(filePath);
+
+        if (!f.exists()) {
+            return 0;
+        }
+        if (BinaryTaskCodec.isBinary(f.toPath())) {
+            return BinaryTaskCodec.read(f.toPath(), taskList);
+        }
+        return isStreaming ? MappedTaskLoader.loadStreaming(f.toPath(), taskList) : readTextSnapshot(f, taskList);
+    }
+
+    /**
+     * Reads a text snapshot into the given list through {@link MappedTaskLoader}.
+     *
+     * @param f Snapshot file to read.
+     * @param taskList List to append the tasks to.
+     * @return Last journal segment folded into the snapshot, or 0 if the file has no header.
+     * @throws IOException If the file cannot be read.
+     */
+    static long readTextSnapshot(File f, List<Task> taskList) throws IOException {
+        return MappedTaskLoader.load(f.toPath(), taskList);
+    }
+
+    /**
+     * Reads the task keys from the line after the header of a text snapshot.
+     *
+     * @param f Snapshot file to read.
+     * @return The keys, or null if the snapshot was written without them.
+     * @throws IOException If the file cannot be read or the keys are corrupted.
+     */
+    static TaskKeys readTextKeys(File f) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+            String line = in.readLine();
+            if (line != null && line.startsWith(HEADER_PREFIX)) {
+                line = in.readLine();
             }
-            return taskList;
-        } catch (Exception e) {
-            throw new NattoException("Error loading tasks from file.");
+            if (line == null || !line.startsWith(KEYS_PREFIX)) {
+                return null;
+            }
+            return TaskKeys.parse(line.substring(KEYS_PREFIX.length()));
         }
     }
 
+    /**
+     * Writes a text snapshot of the tasks in a store, with their keys. A {@link ColumnarTaskStore}
+     * writes its rows itself, without building their tasks.
+     *
+     * @param out Stream to write to; it is flushed but not closed.
+     * @param store Tasks to write.
+     * @param seq Last journal segment contained in the tasks.
+     * @throws IOException If the stream cannot be written.
+     */
+    static void writeTextSnapshot(OutputStream out, TaskStore store, long seq) throws IOException {
+        BufferedWriter fw = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        fw.write(HEADER_PREFIX + seq);
+        fw.write(System.lineSeparator());
+        fw.write(KEYS_PREFIX + TaskKeys.of(store).format());
+        fw.write(System.lineSeparator());
+        ColumnarTaskStore columns = store instanceof ColumnarTaskStore ? (ColumnarTaskStore) store : null;
+        for (int i = 0; i < store.size(); i++) {
+            fw.write(columns != null ? columns.toFileLine(i) : taskToFile(store.get(i)));
+            fw.write(System.lineSeparator());
+        }
+        fw.flush();
+    }
+
     /**
      * Converts a line from the data file into a Task object.
      *
@@ -54,7 +305,7 @@ public class Storage {
      * @throws IllegalArgumentException If the data format is invalid.
      */
     static Task loadTaskArray(String line) {
-        String[] parts = line.split(" \\| ");
+        String[] parts = line.split(" \\| ", -1);
 
         if (parts.length < 3) {
             throw new IllegalArgumentException("Corrupted data: " + line);
@@ -62,36 +313,46 @@ public class Storage {
 
         String type = parts[0].trim();
         boolean isDone = parts[1].trim().equals("1");
-        String description = parts[2].trim();
 
         Task task;
 
+        // The fields after the description are fixed per type, so a description that itself
+        // contains " | " is rejoined from everything in between.
         switch (type) {
         case "T":
-            task = new Todo(description);
+            task = new Todo(joinDescription(parts, 0));
             break;
 
         case "D":
             if (parts.length < 4) {
                 throw new IllegalArgumentException("Corrupted deadline data: " + line);
             }
-            LocalDateTime by = LocalDateTime.parse(parts[3].trim());
-            task = new Deadline(description, by);
+            LocalDateTime by = LocalDateTime.parse(parts[parts.length - 1].trim());
+            task = new Deadline(joinDescription(parts, 1), by);
             break;
 
         case "E":
-            String raw = parts[3].trim();
-
-            int lastSpace = raw.lastIndexOf(" ");
-            String date = raw.substring(0, lastSpace).trim();
-            String time = raw.substring(lastSpace + 1).trim();
+            if (parts.length < 4) {
+                throw new IllegalArgumentException("Corrupted event data: " + line);
+            }
+            // Stored as "<from>-<to>", both ISO date-times; the separator is the first dash after the 'T'.
+            String raw = parts[parts.length - 1].trim();
+            int dash = raw.indexOf('-', raw.indexOf('T'));
+            LocalDateTime from = LocalDateTime.parse(raw.substring(0, dash));
+            LocalDateTime to = LocalDateTime.parse(raw.substring(dash + 1));
 
-            int dash = time.indexOf("-");
-            LocalDateTime from = LocalDateTime.parse(date + " " + time.substring(0, dash));
-            LocalDateTime to = LocalDateTime.parse(time.substring(dash + 1));
+            task = new Event(joinDescription(parts, 1), from, to);
+            break;
 
-            task = new Event(description, from, to);
+        case "C":
+            if (parts.length < 6) {
+                throw new IllegalArgumentException("Corrupted contact data: " + line);
+            }
+            int n = parts.length;
+            task = new Contact(joinDescription(parts, 3), parts[n - 3].trim(), parts[n - 2].trim(),
+                    parts[n - 1].trim());
             break;
+
         default:
             throw new IllegalArgumentException("Unknown task type: " + type);
         }
@@ -102,6 +363,15 @@ public class Storage {
         return task;
     }
 
+    /** Joins the description fields, which start at index 2 and are followed by {@code trailing} fields. */
+    private static String joinDescription(String[] parts, int trailing) {
+        int end = parts.length - trailing;
+        if (end == 3) {
+            return parts[2].trim();
+        }
+        return String.join(" | ", Arrays.copyOfRange(parts, 2, end)).trim();
+    }
+
     /**
      * Converts a Task into its file storage format.
      *
@@ -140,26 +410,335 @@ public class Storage {
     }
 
     /**
-     * Saves the given list of tasks to the data file.
+     * Saves the given list of tasks to the data file as a fresh snapshot and clears the journal.
+     * The tasks must already include every journaled mutation.
+     *
+     * The tasks are saved with the IDs 1, 2, 3... in order.
      *
      * @param tasks List of tasks to save.
      * @throws NattoException If an error occurs while writing to the file.
      */
+    public void saveTasks(List<Task> tasks) throws NattoException {
+        saveTasks(new ArrayTaskStore(tasks));
+    }
 
-    static void saveTasks(List<Task> tasks) throws NattoException {
-        File dir = new File("data");
-        File f = new File("data" + File.separator + "NatData.txt");
+    /**
+     * Saves a task list to the data file as a fresh snapshot and clears the journal, keeping the IDs
+     * of its tasks. The list must already include every journaled mutation.
+     *
+     * @param tasks Task list to save.
+     * @throws NattoException If an error occurs while writing to the file.
+     */
+    public void saveTasks(TaskList tasks) throws NattoException {
+        saveTasks(tasks.store());
+    }
 
-        if (!dir.exists()) {
-            dir.mkdir();
+    private void saveTasks(TaskStore tasks) throws NattoException {
+        if (isSavingDisabled) {
+            throw new NattoException(SAVING_DISABLED);
         }
-        try (FileWriter fw = new FileWriter(f)) {
-            for (Task t : tasks) {
-                fw.write(taskToFile(t));
-                fw.write(System.lineSeparator());
+        synchronized (snapshotLock) {
+            try {
+                openJournal();
+                snapshotGeneration++;
+                long sealed = journal.seal();
+                writeSnapshot(tasks, sealed);
+                journal.deleteUpTo(sealed);
+            } catch (IOException e) {
+                throw new NattoException("Error saving tasks to file.");
             }
+        }
+    }
+
+    /**
+     * Moves the data file and its journal aside after they could not be loaded, so that the next save
+     * starts a fresh file instead of overwriting them. The data file becomes {@code FILE.broken}, or
+     * {@code FILE.broken-2} and so on if that is taken, and each journal segment is moved next to it.
+     * If they cannot be moved, saving is turned off instead, so the data on disk is never replaced.
+     *
+     * @return Path the data file was moved to, or null if there was no data file.
+     * @throws NattoException If the files could not be moved; nothing will be saved from then on.
+     */
+    public String moveAside() throws NattoException {
+        synchronized (snapshotLock) {
+            snapshotGeneration++;
+            try {
+                String base = filePath + BROKEN_SUFFIX;
+                for (int n = 2; new File(base).exists(); n++) {
+                    base = filePath + BROKEN_SUFFIX + "-" + n;
+                }
+                for (long seq : journal.segmentsAfter(-1)) {
+                    Path segment = journal.segmentPath(seq);
+                    Files.move(segment, segment.resolveSibling(new File(base).getName() + ".journal." + seq));
+                }
+                File f = new File(filePath);
+                if (!f.exists()) {
+                    return null;
+                }
+                Files.move(f.toPath(), Paths.get(base));
+                return base;
+            } catch (IOException e) {
+                isSavingDisabled = true;
+                throw new NattoException("Could not move " + filePath + " aside (" + e.getMessage()
+                        + "), so changes will not be saved.");
+            }
+        }
+    }
+
+    /**
+     * Turns saving off for the rest of the session, when the task list in memory no longer matches the
+     * data file and journaling changes on top of the file would corrupt it.
+     */
+    void disableSaving() {
+        isSavingDisabled = true;
+    }
+
+    /**
+     * Journals the addition of a task to the end of the list.
+     *
+     * @param task Task that was added.
+     * @throws NattoException If the journal cannot be written.
+     */
+    public void appendAdd(Task task) throws NattoException {
+        appendRecord(Journal.OP_ADD + Journal.SEPARATOR + taskToFile(task));
+    }
+
+    /**
+     * Journals that the task at the given index was marked as done.
+     *
+     * @param index Zero-based index of the task.
+     * @throws NattoException If the journal cannot be written.
+     */
+    public void appendMark(int index) throws NattoException {
+        appendRecord(Journal.OP_MARK + Journal.SEPARATOR + index);
+    }
+
+    /**
+     * Journals that the task at the given index was marked as not done.
+     *
+     * @param index Zero-based index of the task.
+     * @throws NattoException If the journal cannot be written.
+     */
+    public void appendUnmark(int index) throws NattoException {
+        appendRecord(Journal.OP_UNMARK + Journal.SEPARATOR + index);
+    }
+
+    /**
+     * Journals that the task at the given index was deleted.
+     *
+     * @param index Zero-based index of the task.
+     * @throws NattoException If the journal cannot be written.
+     */
+    public void appendDelete(int index) throws NattoException {
+        appendRecord(Journal.OP_DELETE + Journal.SEPARATOR + index);
+    }
+
+    /**
+     * Blocks until every mutation journaled so far has been written and forced to disk.
+     *
+     * @throws NattoException If the journal could not be written.
+     */
+    public void flush() throws NattoException {
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            throw new NattoException("Error saving tasks to file.");
+        }
+    }
+
+    /**
+     * Writes every mutation journaled so far to disk and closes the journal. Call it before the program
+     * exits: the journal is written on a daemon thread, so records still queued would otherwise be lost.
+     * Nothing can be journaled afterwards.
+     *
+     * @throws NattoException If the journal could not be written.
+     */
+    public void close() throws NattoException {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new NattoException("Error saving tasks to file.");
+        }
+    }
+
+    /**
+     * Starts a batch: until it ends, mutations are not journaled, so nothing on disk changes and
+     * the batch can be abandoned by reloading.
+     */
+    public void beginBatch() {
+        isInBatch = true;
+    }
+
+    /** Returns whether a batch is in progress, so mutations are not being journaled. */
+    public boolean isInBatch() {
+        return isInBatch;
+    }
+
+    /**
+     * Ends a batch by saving every task as one fresh snapshot.
+     *
+     * @param tasks Tasks after the batch, including every mutation made before it.
+     * @throws NattoException If the snapshot cannot be written; the data file is then left as it was.
+     */
+    public void endBatch(TaskList tasks) throws NattoException {
+        isInBatch = false;
+        saveTasks(tasks);
+    }
+
+    /**
+     * Ends a batch without saving; the data file still holds the tasks from before it.
+     */
+    public void abortBatch() {
+        isInBatch = false;
+    }
+
+    private void appendRecord(String record) throws NattoException {
+        if (isInBatch) {
+            return;
+        }
+        if (isSavingDisabled) {
+            throw new NattoException(SAVING_DISABLED);
+        }
+        try {
+            openJournal();
+            journal.append(record);
         } catch (IOException e) {
             throw new NattoException("Error saving tasks to file.");
         }
+        maybeCompact();
+    }
+
+    /** Opens the journal for callers that append without loading first; a no-op once it is open. */
+    private void openJournal() throws IOException {
+        if (journal.isOpened()) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            journal.open(readSnapshotSeq());
+        }
+    }
+
+    private long readSnapshotSeq() throws IOException {
+        File f = new File(filePath);
+        if (!f.exists()) {
+            return 0;
+        }
+        if (BinaryTaskCodec.isBinary(f.toPath())) {
+            return BinaryTaskCodec.readSeq(f.toPath());
+        }
+        try (Scanner sc = new Scanner(f, StandardCharsets.UTF_8)) {
+            return sc.hasNextLine() ? parseHeader(sc.nextLine()) : 0;
+        }
+    }
+
+    /** Returns the segment number recorded in a snapshot header line, or 0 if the line is not a header. */
+    private static long parseHeader(String line) {
+        if (!line.startsWith(HEADER_PREFIX)) {
+            return 0;
+        }
+        return Long.parseLong(line.substring(HEADER_PREFIX.length()).trim());
+    }
+
+    /** Queues a compaction if the journal has grown past either threshold and none is queued yet. */
+    private void maybeCompact() {
+        boolean isDue = journal.getPendingRecords() >= compactRecordThreshold
+                || journal.getPendingBytes() >= compactByteThreshold;
+        if (isDue && isCompactionQueued.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Folds the journal into a new snapshot. The active segment is sealed first, so appends carry on
+     * into the next one while the snapshot and the sealed segments are merged from disk. The old snapshot
+     * is read into the same kind of store as the task list: paged through when it was loaded lazily, and
+     * into columns, written back out without building any task, when it is columnar.
+     * The lock is only held to seal the journal and, at the end, to move the new snapshot into place; if
+     * a full save replaced the snapshot in between, it already holds everything, and the merge is dropped.
+     * The new snapshot records the last segment it contains, and segments are only deleted after it
+     * has been moved into place; a crash at any point leaves a snapshot and journal that load correctly.
+     */
+    private void compact() {
+        File temp = new File(filePath + COMPACT_SUFFIX);
+        long generation = -1;
+        try {
+            long sealed;
+            synchronized (snapshotLock) {
+                sealed = journal.seal();
+                generation = snapshotGeneration;
+            }
+            long[] snapshotSeq = new long[1];
+            TaskStore store = openSnapshot(mode == TaskListMode.TREE ? TaskListMode.ARRAY : mode, snapshotSeq);
+            try {
+                journal.replay(snapshotSeq[0], sealed, new TaskStoreView(store));
+                writeTempSnapshot(temp, store, sealed);
+            } finally {
+                if (store instanceof LazyTaskStore) {
+                    ((LazyTaskStore) store).close();
+                }
+            }
+            synchronized (snapshotLock) {
+                if (generation != snapshotGeneration) {
+                    Files.deleteIfExists(temp.toPath());
+                    return;
+                }
+                moveIntoPlace(temp);
+                snapshotGeneration++;
+                journal.deleteUpTo(sealed);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Nothing on disk has been replaced; the journal still holds every record.
+            temp.delete();
+            synchronized (snapshotLock) {
+                // Sealing fails once the journal is closed on exit; the records are all on disk anyway.
+                if (generation == snapshotGeneration && !journal.isClosed()) {
+                    System.err.println("Compaction failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            isCompactionQueued.set(false);
+        }
+    }
+
+    /** Blocks until any queued compaction has finished. */
+    void awaitCompaction() throws InterruptedException, ExecutionException {
+        compactor.submit(() -> null).get();
+    }
+
+    /**
+     * Writes a snapshot in the configured format to a temporary file, forces it to disk and then
+     * moves it over the data file.
+     *
+     * @param tasks Tasks to write, with their keys.
+     * @param seq Last journal segment contained in the tasks.
+     */
+    private void writeSnapshot(TaskStore tasks, long seq) throws IOException {
+        File temp = new File(filePath + TEMP_SUFFIX);
+        writeTempSnapshot(temp, tasks, seq);
+        moveIntoPlace(temp);
+    }
+
+    private void writeTempSnapshot(File temp, TaskStore tasks, long seq) throws IOException {
+        File dir = temp.getAbsoluteFile().getParentFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            if (format == SnapshotFormat.BINARY) {
+                BinaryTaskCodec.write(out, tasks, seq);
+            } else {
+                writeTextSnapshot(out, tasks, seq);
+            }
+            out.getFD().sync();
+        }
+    }
+
+    private void moveIntoPlace(File temp) throws IOException {
+        Path target = Paths.get(filePath);
+        try {
+            Files.move(temp.toPath(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 }
@@ -0,0 +1,85 @@
+package natto;
+
+/**
+ * Represents a task with a name and completion status.
+ */
+public class Task {
+    private String name;
+    private boolean isDone;
+    /** Display string, built on first use and dropped whenever the task changes. */
+    private String rendered;
+
+    /**
+     * Creates a task with the given name.
+     *
+     * @param name Name/description of the task.
+     */
+    public Task(String name) {
+        assert name != null : "Task name should not be null";
+        assert !name.trim().isEmpty() : "Task name should not be empty";
+        this.name = name;
+        this.isDone = false;
+    }
+
+    /**
+     * Marks the task as done.
+     */
+    public void mark() {
+        this.isDone = true;
+        this.rendered = null;
+    }
+
+    /**
+     * Marks the task as not done.
+     */
+    public void unmark() {
+        this.isDone = false;
+        this.rendered = null;
+    }
+
+    /**
+     * Returns whether the task is done.
+     *
+     * @return True if the task is marked as done.
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * Returns the name of the task.
+     *
+     * @return Name of the task.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the display string of the task, rendering it only the first time it is asked for.
+     *
+     * @return Display string of the task.
+     */
+    @Override
+    public String toString() {
+        String display = rendered;
+        if (display == null) {
+            display = render();
+            rendered = display;
+        }
+        return display;
+    }
+
+    /**
+     * Builds the display string of the task. Subclasses add their type and details.
+     *
+     * @return Display string of the task.
+     */
+    protected String render() {
+        if (isDone) {
+            return "[X] " + this.name;
+        } else {
+            return "[ ] " + this.name;
+        }
+    }
+}
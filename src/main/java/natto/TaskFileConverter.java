@@ -0,0 +1,70 @@
+package natto;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a task snapshot between the text and binary formats.
+ * The journal segment and task keys recorded in the snapshot are carried over, so a converted snapshot can be
+ * dropped in place of the original while its journal is still pending.
+ */
+public class TaskFileConverter {
+
+    /**
+     * Converts the snapshot at {@code source} into {@code target}, in the given format.
+     * The source format is detected from the file itself.
+     *
+     * @param source Snapshot to read.
+     * @param target File to write.
+     * @param format Format to write.
+     * @return Number of tasks converted.
+     * @throws IOException If either file cannot be accessed, or the source is corrupted.
+     */
+    public static int convert(Path source, Path target, SnapshotFormat format) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        boolean isBinary = BinaryTaskCodec.isBinary(source);
+        long seq = isBinary
+                ? BinaryTaskCodec.read(source, tasks)
+                : Storage.readTextSnapshot(source.toFile(), tasks);
+        TaskKeys keys = isBinary
+                ? BinaryTaskCodec.readKeys(source)
+                : Storage.readTextKeys(source.toFile());
+        TaskStore store = new ArrayTaskStore(tasks);
+        if (keys != null) {
+            keys.restore(store);
+        }
+
+        try (FileOutputStream out = new FileOutputStream(target.toFile())) {
+            if (format == SnapshotFormat.BINARY) {
+                BinaryTaskCodec.write(out, store, seq);
+            } else {
+                Storage.writeTextSnapshot(out, store, seq);
+            }
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Converts a snapshot from the command line.
+     * Usage: {@code TaskFileConverter text|binary SOURCE TARGET}
+     *
+     * @param args Target format, source file and target file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: TaskFileConverter text|binary SOURCE TARGET");
+            System.exit(1);
+        }
+        try {
+            int count = convert(Paths.get(args[1]), Paths.get(args[2]), SnapshotFormat.parse(args[0]));
+            System.out.println("Converted " + count + " tasks to " + args[2]);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Conversion failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package natto;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The keys of the tasks in a snapshot and the key the next added task will get, saved with the
+ * snapshot so that task IDs survive a restart.
+ *
+ * <p>Keys increase in list order and only deleted tasks leave gaps, so they are saved as runs of
+ * consecutive keys: a list that has never lost a task is a single run, however long it is.
+ */
+final class TaskKeys {
+    private final long[] keys;
+    private final long nextKey;
+
+    private TaskKeys(long[] keys, long nextKey) {
+        this.keys = keys;
+        this.nextKey = nextKey;
+    }
+
+    /**
+     * Returns the current keys of a store.
+     *
+     * @param store Store to read.
+     * @return The keys.
+     */
+    static TaskKeys of(TaskStore store) {
+        long[] keys = new long[store.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = store.keyAt(i);
+        }
+        return new TaskKeys(keys, store.nextKey());
+    }
+
+    /**
+     * Gives the tasks of a store these keys.
+     *
+     * @param store Store holding the tasks the keys were saved with.
+     * @throws IOException If the store does not hold one task per key.
+     */
+    void restore(TaskStore store) throws IOException {
+        if (store.size() != keys.length) {
+            throw new IOException("Saved " + keys.length + " task keys for " + store.size() + " tasks");
+        }
+        store.restoreKeys(keys, nextKey);
+    }
+
+    /**
+     * Formats the keys as {@code NEXT FIRST+COUNT...}, one {@code FIRST+COUNT} per run.
+     *
+     * @return The keys as text.
+     */
+    String format() {
+        StringBuilder text = new StringBuilder().append(nextKey);
+        for (int i = 0; i < keys.length; i = endOfRun(i)) {
+            text.append(' ').append(keys[i]).append('+').append(endOfRun(i) - i);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Parses keys written by {@link #format()}.
+     *
+     * @param text The keys as text.
+     * @return The keys.
+     * @throws IOException If the text is not valid keys.
+     */
+    static TaskKeys parse(String text) throws IOException {
+        String[] fields = text.trim().split(" +");
+        try {
+            long nextKey = Long.parseLong(fields[0]);
+            long[] keys = new long[16];
+            int count = 0;
+            for (int f = 1; f < fields.length; f++) {
+                int plus = fields[f].indexOf('+');
+                long first = Long.parseLong(fields[f].substring(0, plus));
+                int length = Integer.parseInt(fields[f].substring(plus + 1));
+                if (length < 0) {
+                    throw new IOException("Corrupted task keys: " + text);
+                }
+                if (count + length > keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(keys.length * 2, count + length));
+                }
+                for (int k = 0; k < length; k++) {
+                    keys[count++] = first + k;
+                }
+            }
+            return checked(Arrays.copyOf(keys, count), nextKey);
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IOException("Corrupted task keys: " + text);
+        }
+    }
+
+    /**
+     * Writes the keys in binary: the next key, the number of runs, then the first key and length of each run.
+     *
+     * @param out Stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    void write(DataOutputStream out) throws IOException {
+        int runs = 0;
+        for (int i = 0; i < keys.length; i = endOfRun(i)) {
+            runs++;
+        }
+        out.writeLong(nextKey);
+        out.writeInt(runs);
+        for (int i = 0; i < keys.length; i = endOfRun(i)) {
+            out.writeLong(keys[i]);
+            out.writeInt(endOfRun(i) - i);
+        }
+    }
+
+    /**
+     * Reads keys written by {@link #write(DataOutputStream)}.
+     *
+     * @param in Stream to read from.
+     * @param count Number of tasks the keys belong to.
+     * @return The keys.
+     * @throws IOException If the stream cannot be read or does not hold {@code count} valid keys.
+     */
+    static TaskKeys read(DataInputStream in, int count) throws IOException {
+        long nextKey = in.readLong();
+        int runs = in.readInt();
+        long[] keys = new long[count];
+        int filled = 0;
+        for (int r = 0; r < runs; r++) {
+            long first = in.readLong();
+            int length = in.readInt();
+            if (length < 0 || length > count - filled) {
+                throw new IOException("Corrupted task keys: run of " + length + " after " + filled + " keys");
+            }
+            for (int k = 0; k < length; k++) {
+                keys[filled++] = first + k;
+            }
+        }
+        if (filled != count) {
+            throw new IOException("Saved " + filled + " task keys for " + count + " tasks");
+        }
+        return checked(keys, nextKey);
+    }
+
+    /** Checks that keys are positive, increasing and below the next key, as a store hands them out. */
+    private static TaskKeys checked(long[] keys, long nextKey) throws IOException {
+        long previous = 0;
+        for (long key : keys) {
+            if (key <= previous) {
+                throw new IOException("Corrupted task keys: " + key + " after " + previous);
+            }
+            previous = key;
+        }
+        if (nextKey <= previous) {
+            throw new IOException("Corrupted task keys: next key " + nextKey + " after " + previous);
+        }
+        return new TaskKeys(keys, nextKey);
+    }
+
+    /** Returns the index just past the run of consecutive keys starting at {@code from}. */
+    private int endOfRun(int from) {
+        int i = from + 1;
+        while (i < keys.length && keys[i] == keys[i - 1] + 1) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -1,39 +1,368 @@
 package natto;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents a list of tasks.
+ * The tasks are kept in a {@link TaskStore}: on the heap in an array by default, in an
+ * order-statistic tree when removals from large lists must be fast, as compact primitive columns
+ * with text on or off the heap when memory is tight, or read from disk on demand when the list was loaded lazily.
+ *
+ * <p>Every task is also given a key by the store when it joins the list, which is shown to the user
+ * as its ID. Keys only ever increase, so they are in list order: every store finds a task by ID in
+ * O(log n) or better, the default one in O(1) through a hash map, and search indexes refer to tasks by
+ * key and stay valid as tasks before them are removed.
+ * {@link Storage} saves the keys with the tasks, so a task keeps its ID across restarts.
+ * Indexes are built the first time they are queried and kept up to date from then on.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private final TaskStore store;
+    private final List<Task> view;
+
+    private WordIndex words;
+    private TrigramIndex trigrams;
+    private DateIndex dates;
+    private IntervalTree events;
 
     public TaskList() {
-        tasks = new ArrayList<>();
+        this(new ArrayTaskStore());
     }
 
     public TaskList(List<Task> loaded) {
-        tasks = new ArrayList<>(loaded);
+        this(new ArrayTaskStore(loaded));
+    }
+
+    /**
+     * Creates a task list holding the given tasks in the chosen kind of store.
+     *
+     * @param loaded Tasks, in list order.
+     * @param mode How to hold the tasks; {@link TaskListMode#LAZY} lists come from {@link Storage} instead.
+     * @throws IllegalArgumentException If the mode is {@link TaskListMode#LAZY}.
+     */
+    public TaskList(List<Task> loaded, TaskListMode mode) {
+        this(createStore(loaded, mode));
+    }
+
+    TaskList(TaskStore store) {
+        this.store = store;
+        this.view = Collections.unmodifiableList(new TaskStoreView(store));
+    }
+
+    static TaskStore createStore(List<Task> loaded, TaskListMode mode) {
+        switch (mode) {
+        case ARRAY:
+            return new ArrayTaskStore(loaded);
+        case TREE:
+            return new TreeTaskStore(loaded);
+        case COLUMNAR:
+            return new ColumnarTaskStore(loaded, false);
+        case OFF_HEAP:
+            return new ColumnarTaskStore(loaded, true);
+        default:
+            throw new IllegalArgumentException("A " + mode + " task list must be loaded through Storage");
+        }
     }
 
+    /**
+     * Appends a task to the end of the list.
+     *
+     * @param t Task to add.
+     */
     public void add(Task t) {
-        tasks.add(t);
+        long key = store.add(t);
+        if (words != null) {
+            words.add(key, t.getName());
+        }
+        if (trigrams != null) {
+            trigrams.add(key, t.getName().toLowerCase());
+        }
+        if (dates != null) {
+            dates.add(key, t);
+        }
+        if (events != null && t instanceof Event) {
+            events.insert(epochSecond(((Event) t).from), epochSecond(((Event) t).to), key);
+        }
     }
 
+    /**
+     * Removes the task at the given index.
+     *
+     * @param index Zero-based index of the task.
+     * @return The removed task.
+     */
     public Task remove(int index) {
-        return tasks.remove(index);
+        long key = store.keyAt(index);
+        Task removed = store.remove(index);
+        if (words != null) {
+            words.remove(key, removed.getName());
+        }
+        if (trigrams != null) {
+            trigrams.remove(key, removed.getName().toLowerCase());
+        }
+        if (dates != null) {
+            dates.remove(key, removed);
+        }
+        if (events != null && removed instanceof Event) {
+            events.remove(epochSecond(((Event) removed).from), key);
+        }
+        return removed;
     }
 
     public Task get(int index) {
-        return tasks.get(index);
+        return store.get(index);
+    }
+
+    /**
+     * Marks the task at the given index as done.
+     *
+     * @param index Zero-based index of the task.
+     * @return The marked task.
+     */
+    public Task mark(int index) {
+        Task task = store.get(index);
+        task.mark();
+        store.set(index, task);
+        return task;
+    }
+
+    /**
+     * Marks the task at the given index as not done.
+     *
+     * @param index Zero-based index of the task.
+     * @return The unmarked task.
+     */
+    public Task unmark(int index) {
+        Task task = store.get(index);
+        task.unmark();
+        store.set(index, task);
+        return task;
     }
 
     public int size() {
-        return tasks.size();
+        return store.size();
+    }
+
+    /**
+     * Returns the ID of the task at the given index.
+     *
+     * @param index Zero-based index of the task.
+     * @return The task's ID.
+     */
+    public long getId(int index) {
+        return store.keyAt(index);
+    }
+
+    /**
+     * Returns the index of the task with the given ID.
+     *
+     * @param id ID of the task.
+     * @return Zero-based index of the task, or -1 if no task has that ID.
+     */
+    public int indexOfId(long id) {
+        return store.indexOfKey(id);
     }
 
     public List<Task> getAll() {
-        return tasks;
+        return view;
+    }
+
+    /**
+     * Releases what the store holds open, such as the data file a lazily loaded list reads from.
+     * The list cannot be used afterwards.
+     *
+     * @throws IOException If the store cannot be closed.
+     */
+    void close() throws IOException {
+        if (store instanceof LazyTaskStore) {
+            ((LazyTaskStore) store).close();
+        }
+    }
+
+    /** Returns the store holding the tasks, for saving them with their keys. */
+    TaskStore store() {
+        return store;
+    }
+
+    /**
+     * Returns the tasks whose names contain the given words as whole words, ignoring case.
+     *
+     * @param query Words to look for.
+     * @param isMatchAll Whether a task must contain every word, rather than any of them.
+     * @return Matching tasks in list order.
+     */
+    public List<Task> search(List<String> query, boolean isMatchAll) {
+        if (words == null) {
+            words = new WordIndex();
+            for (int i = 0; i < store.size(); i++) {
+                words.add(store.keyAt(i), store.get(i).getName());
+            }
+        }
+        return tasksWithKeys(isMatchAll ? words.matchAll(query) : words.matchAny(query));
+    }
+
+    /**
+     * Returns the tasks whose names contain the keyword, ignoring case.
+     *
+     * @param keyword Text to look for.
+     * @return Matching tasks in list order.
+     */
+    public List<Task> find(String keyword) {
+        String needle = keyword.toLowerCase();
+        if (needle.length() < TrigramIndex.GRAM_LENGTH) {
+            return view.stream()
+                    .filter(t -> t.getName().toLowerCase().contains(needle))
+                    .toList();
+        }
+        if (trigrams == null) {
+            trigrams = new TrigramIndex();
+            for (int i = 0; i < store.size(); i++) {
+                trigrams.add(store.keyAt(i), store.get(i).getName().toLowerCase());
+            }
+        }
+
+        List<Task> matches = new ArrayList<>();
+        for (Task candidate : tasksWithKeys(trigrams.candidates(needle))) {
+            if (candidate.getName().toLowerCase().contains(needle)) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the deadlines due in {@code [from, until)}.
+     *
+     * @param from Start of the range, inclusive.
+     * @param until End of the range, exclusive.
+     * @return Matching deadlines, earliest due first.
+     */
+    public List<Task> dueBetween(LocalDateTime from, LocalDateTime until) {
+        return tasksWithKeys(dateIndex().deadlinesBetween(from, until));
+    }
+
+    /**
+     * Returns the deadlines due and events starting in {@code [from, until)}.
+     *
+     * @param from Start of the range, inclusive.
+     * @param until End of the range, exclusive.
+     * @return Matching tasks, earliest first.
+     */
+    public List<Task> datedBetween(LocalDateTime from, LocalDateTime until) {
+        return tasksWithKeys(dateIndex().datedBetween(from, until));
+    }
+
+    /**
+     * Returns the events that are running at some point in {@code [from, until)}.
+     *
+     * @param from Start of the range, inclusive.
+     * @param until End of the range, exclusive.
+     * @return Matching events, earliest start first.
+     */
+    public List<Task> eventsOverlapping(LocalDateTime from, LocalDateTime until) {
+        List<Long> matches = new ArrayList<>();
+        eventTree().overlapping(epochSecond(from), epochSecond(until), matches);
+        return tasksWithKeys(matches);
+    }
+
+    /**
+     * Returns the other events whose time overlaps the event at the given index.
+     *
+     * @param index Zero-based index of an event.
+     * @return Conflicting events, earliest start first; empty if the task is not an event.
+     */
+    public List<Task> conflictsWith(int index) {
+        Task task = store.get(index);
+        if (!(task instanceof Event)) {
+            return List.of();
+        }
+        long key = store.keyAt(index);
+        List<Long> matches = new ArrayList<>();
+        eventTree().overlapping(epochSecond(((Event) task).from), epochSecond(((Event) task).to), matches);
+        matches.remove(Long.valueOf(key));
+        return tasksWithKeys(matches);
+    }
+
+    /**
+     * Returns every event whose time overlaps another event.
+     *
+     * @return Conflicting events, earliest start first.
+     */
+    public List<Task> conflicts() {
+        IntervalTree tree = eventTree();
+        List<Long> conflicting = new ArrayList<>();
+        List<Long> overlaps = new ArrayList<>();
+        tree.forEach((start, end, key) -> {
+            overlaps.clear();
+            tree.overlapping(start, end, overlaps);
+            if (overlaps.size() > 1) {
+                conflicting.add(key);
+            }
+        });
+        return tasksWithKeys(conflicting);
+    }
+
+    private IntervalTree eventTree() {
+        if (events == null) {
+            int count = 0;
+            long[] starts = new long[16];
+            long[] ends = new long[16];
+            long[] eventKeys = new long[16];
+            for (int i = 0; i < store.size(); i++) {
+                Task task = store.get(i);
+                if (task instanceof Event) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                        ends = Arrays.copyOf(ends, count * 2);
+                        eventKeys = Arrays.copyOf(eventKeys, count * 2);
+                    }
+                    starts[count] = epochSecond(((Event) task).from);
+                    ends[count] = epochSecond(((Event) task).to);
+                    eventKeys[count] = store.keyAt(i);
+                    count++;
+                }
+            }
+            events = IntervalTree.build(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count),
+                    Arrays.copyOf(eventKeys, count));
+        }
+        return events;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return BinaryTaskCodec.toEpochSecond(dateTime);
+    }
+
+    private DateIndex dateIndex() {
+        if (dates == null) {
+            dates = new DateIndex();
+            for (int i = 0; i < store.size(); i++) {
+                dates.add(store.keyAt(i), store.get(i));
+            }
+        }
+        return dates;
+    }
+
+    private Task taskWithKey(long key) {
+        return store.getByKey(key);
+    }
+
+    private List<Task> tasksWithKeys(List<Long> matches) {
+        List<Task> result = new ArrayList<>(matches.size());
+        for (long key : matches) {
+            result.add(taskWithKey(key));
+        }
+        return result;
+    }
+
+    private List<Task> tasksWithKeys(long[] matches) {
+        List<Task> result = new ArrayList<>(matches.length);
+        for (long key : matches) {
+            result.add(taskWithKey(key));
+        }
+        return result;
     }
 }
@@ -0,0 +1,32 @@
+package natto;
+
+/**
+ * How the task list holds its tasks in memory.
+ */
+public enum TaskListMode {
+    /** Every task is loaded onto the heap at startup. */
+    ARRAY,
+    /** Every task is loaded onto the heap into an order-statistic tree; deleting from anywhere is fast. */
+    TREE,
+    /** Tasks are kept as compact columns of primitives, and task objects are only made when needed. */
+    COLUMNAR,
+    /** Like {@link #COLUMNAR}, with task text kept outside the Java heap, out of the garbage collector's way. */
+    OFF_HEAP,
+    /** Tasks stay in the data file and are read a page at a time when they are needed. */
+    LAZY;
+
+    /**
+     * Parses a task list mode such as {@code "array"}, {@code "tree"}, {@code "columnar"},
+     * {@code "off-heap"} or {@code "lazy"}.
+     *
+     * @param value Mode name, case-insensitive; null or blank gives {@link #ARRAY}.
+     * @return The matching mode.
+     * @throws IllegalArgumentException If the name is not a known mode.
+     */
+    public static TaskListMode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ARRAY;
+        }
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
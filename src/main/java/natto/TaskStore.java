@@ -0,0 +1,82 @@
+package natto;
+
+/**
+ * Ordered storage behind a {@link TaskList}.
+ * Implementations may hand out tasks that are not retained, so a task changed in place
+ * must be written back with {@link #set(int, Task)}.
+ *
+ * <p>Every task is given a key when it enters the store: the tasks a store starts with get keys
+ * 1, 2, 3... in order, and each added task gets the next one. Keys therefore increase in list order.
+ * A store loaded from a snapshot is given the keys saved with it through {@link #restoreKeys}.
+ */
+interface TaskStore {
+    int size();
+
+    Task get(int index);
+
+    /**
+     * Replaces the task at the given position, or records that it was changed in place.
+     *
+     * @param index Zero-based position.
+     * @param task Task to store there.
+     */
+    void set(int index, Task task);
+
+    /**
+     * Appends a task to the end of the store.
+     *
+     * @param task Task to append.
+     * @return The key given to the task.
+     */
+    long add(Task task);
+
+    /**
+     * Removes the task at the given position, shifting later tasks down by one.
+     *
+     * @param index Zero-based position.
+     * @return The removed task.
+     */
+    Task remove(int index);
+
+    /**
+     * Returns the key of the task at the given position.
+     *
+     * @param index Zero-based position.
+     * @return The task's key.
+     */
+    long keyAt(int index);
+
+    /**
+     * Returns the position of the task with the given key.
+     *
+     * @param key Key of the task.
+     * @return Zero-based position, or -1 if no task has that key.
+     */
+    int indexOfKey(long key);
+
+    /**
+     * Returns the task with the given key.
+     *
+     * @param key Key of the task.
+     * @return The task, or null if no task has that key.
+     */
+    default Task getByKey(long key) {
+        int index = indexOfKey(key);
+        return index < 0 ? null : get(index);
+    }
+
+    /**
+     * Returns the key the next added task will get.
+     *
+     * @return The next key.
+     */
+    long nextKey();
+
+    /**
+     * Replaces the keys of every task, as when they were saved.
+     *
+     * @param keys Key of each task, by position; increasing, with one key per task.
+     * @param nextKey Key the next added task gets; greater than every key.
+     */
+    void restoreKeys(long[] keys, long nextKey);
+}
@@ -0,0 +1,46 @@
+package natto;
+
+import java.util.AbstractList;
+
+/**
+ * Presents a {@link TaskStore} as a {@link java.util.List}. Elements can only be appended at the end.
+ */
+class TaskStoreView extends AbstractList<Task> {
+    private final TaskStore store;
+
+    TaskStoreView(TaskStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Task get(int index) {
+        return store.get(index);
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task old = store.get(index);
+        store.set(index, task);
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index != store.size()) {
+            throw new UnsupportedOperationException("Tasks can only be added at the end");
+        }
+        store.add(task);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        modCount++;
+        return store.remove(index);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+}
@@ -0,0 +1,162 @@
+package natto;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.LongConsumer;
+
+/**
+ * Streams tasks between a task list and a CSV or JSON Lines file, in bounded memory.
+ *
+ * <p>An import reads the file in chunks of {@value #CHUNK_LINES} lines and decodes them on the common
+ * fork-join pool, while the calling thread adds decoded chunks to the list in file order. At most a
+ * few chunks per thread are in flight: once that many are waiting, reading stops until the oldest
+ * has been added, so memory does not grow with the file. An export writes one task at a time to a
+ * temporary file and moves it into place at the end, so a failed export never leaves half a file.
+ */
+final class TaskTransfer {
+    static final int CHUNK_LINES = 2048;
+    /** Number of tasks between progress reports. */
+    static final long PROGRESS_INTERVAL = 100_000;
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    private TaskTransfer() {
+    }
+
+    /**
+     * Adds every task in a file to the end of a task list. If the file has an invalid line, tasks
+     * before it have already been added; the caller decides whether to keep them.
+     *
+     * @param file File to read.
+     * @param format Format of the file.
+     * @param tasks List to add the tasks to.
+     * @param progress Told the number of tasks added so far, every {@value #PROGRESS_INTERVAL} tasks.
+     * @return Number of tasks added.
+     * @throws IOException If the file cannot be read.
+     * @throws NattoException If a line is not a valid task.
+     */
+    static long importTasks(Path file, ExchangeFormat format, TaskList tasks, LongConsumer progress)
+            throws IOException, NattoException {
+        int maxInFlight = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD);
+        ArrayDeque<ForkJoinTask<Decoded>> inFlight = new ArrayDeque<>(maxInFlight);
+        long added = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            String line;
+            while (true) {
+                line = in.readLine();
+                if (line != null) {
+                    chunk.add(line);
+                }
+                if (chunk.size() == CHUNK_LINES || line == null && !chunk.isEmpty()) {
+                    if (inFlight.size() == maxInFlight) {
+                        added = addChunk(inFlight.poll(), tasks, added, progress);
+                    }
+                    inFlight.add(submitDecode(format, chunk, lineNumber + 1));
+                    lineNumber += chunk.size();
+                    chunk = new ArrayList<>(CHUNK_LINES);
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                added = addChunk(inFlight.poll(), tasks, added, progress);
+            }
+            return added;
+        } finally {
+            for (ForkJoinTask<Decoded> pending : inFlight) {
+                pending.cancel(false);
+            }
+        }
+    }
+
+    private static ForkJoinTask<Decoded> submitDecode(ExchangeFormat format, List<String> lines,
+            long firstLineNumber) {
+        return ForkJoinPool.commonPool().submit(() -> {
+            List<Task> decoded = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Task task = format.decode(line);
+                    if (task != null) {
+                        decoded.add(task);
+                    }
+                } catch (IllegalArgumentException e) {
+                    return new Decoded(decoded, "Line " + (firstLineNumber + i) + ": " + e.getMessage());
+                }
+            }
+            return new Decoded(decoded, null);
+        });
+    }
+
+    /** Waits for a chunk to be decoded and adds its tasks, returning the new total. */
+    private static long addChunk(ForkJoinTask<Decoded> chunk, TaskList tasks, long added, LongConsumer progress)
+            throws NattoException {
+        Decoded decoded = chunk.join();
+        for (Task task : decoded.tasks) {
+            tasks.add(task);
+            added++;
+            if (added % PROGRESS_INTERVAL == 0) {
+                progress.accept(added);
+            }
+        }
+        if (decoded.error != null) {
+            throw new NattoException(decoded.error);
+        }
+        return added;
+    }
+
+    /** Tasks decoded from a chunk, up to the first invalid line if there is one. */
+    private record Decoded(List<Task> tasks, String error) {
+    }
+
+    /**
+     * Writes every task in a list to a file, replacing it if it exists.
+     *
+     * @param tasks Tasks to write, in list order.
+     * @param format Format to write.
+     * @param file File to write.
+     * @param progress Told the number of tasks written so far, every {@value #PROGRESS_INTERVAL} tasks.
+     * @return Number of tasks written.
+     * @throws IOException If the file cannot be written.
+     */
+    static long exportTasks(TaskList tasks, ExchangeFormat format, Path file, LongConsumer progress)
+            throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        long written = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            if (format.header() != null) {
+                out.write(format.header());
+                out.newLine();
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                out.write(format.encode(tasks.get(i)));
+                out.newLine();
+                written++;
+                if (written % PROGRESS_INTERVAL == 0) {
+                    progress.accept(written);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        return written;
+    }
+}
@@ -0,0 +1,58 @@
+package natto;
+
+/**
+ * Arena holding strings as UTF-8 bytes, for stores that keep task text out of objects.
+ *
+ * <p>A string is addressed by the offset and length given when it was added. Released strings are
+ * counted as {@link #garbage()}; once that grows large, the owner defragments by copying its live
+ * strings into a fresh arena from {@link #newArena(int)} and updating their offsets.
+ */
+interface TextArena {
+    /**
+     * Adds a string's bytes.
+     *
+     * @param utf8 The string, encoded as UTF-8.
+     * @return Offset of the bytes in the arena.
+     */
+    int add(byte[] utf8);
+
+    /**
+     * Reads a string's bytes.
+     *
+     * @return A copy of the bytes.
+     */
+    byte[] bytes(int offset, int length);
+
+    /**
+     * Decodes a string.
+     *
+     * @return The string.
+     */
+    String get(int offset, int length);
+
+    /**
+     * Returns whether the string at the given place has exactly the given bytes.
+     *
+     * @param utf8 Bytes to compare with.
+     */
+    boolean matches(int offset, int length, byte[] utf8);
+
+    /**
+     * Gives up a string; its bytes become garbage and may be reused.
+     */
+    void release(int offset, int length);
+
+    /** Returns the bytes taken from the arena so far, including released ones. */
+    long used();
+
+    /** Returns the released bytes that are not in use again. */
+    long garbage();
+
+    /**
+     * Creates an empty arena of the same kind.
+     *
+     * @param capacity Bytes the new arena should expect to hold.
+     * @return The new arena.
+     */
+    TextArena newArena(long capacity);
+}
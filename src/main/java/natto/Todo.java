@@ -0,0 +1,20 @@
+package natto;
+
+/**
+ * Represents a simple to-do task without any date/time.
+ */
+public class Todo extends Task {
+    /**
+     * Creates a to-do task with the given description.
+     *
+     * @param description Description of the task.
+     */
+    public Todo(String description) {
+        super(description);
+    }
+
+    @Override
+    protected String render() {
+        return "[T]" + super.render();
+    }
+}
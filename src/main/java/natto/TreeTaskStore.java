@@ -0,0 +1,226 @@
+package natto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link TaskStore} kept in an order-statistic tree, so that getting, adding and removing a task at
+ * any position all take O(log n) time, without the occasional pass over the whole list the default
+ * store makes to compact its slots.
+ *
+ * <p>The tree is a treap ordered by position: each node records the size of its subtree, which finds
+ * the node at a position by descending from the root. Keys increase in list order, so the same tree
+ * is also a search tree by key.
+ */
+class TreeTaskStore implements TaskStore {
+    private static final Random PRIORITIES = new Random();
+
+    private Node root;
+    private long nextKey = 1;
+
+    TreeTaskStore() {
+    }
+
+    /**
+     * Creates a store holding the given tasks, built directly as a balanced tree in O(n).
+     *
+     * @param loaded Tasks, in list order.
+     */
+    TreeTaskStore(List<Task> loaded) {
+        Node[] nodes = new Node[loaded.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(loaded.get(i), nextKey++, 0);
+        }
+        root = buildBalanced(nodes, 0, nodes.length);
+        assignPriorities(root, nodes.length);
+    }
+
+    private static Node buildBalanced(Node[] nodes, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node node = nodes[mid];
+        node.left = buildBalanced(nodes, from, mid);
+        node.right = buildBalanced(nodes, mid + 1, to);
+        node.update();
+        return node;
+    }
+
+    /**
+     * Hands out random priorities, largest first in breadth-first order, so the balanced tree is
+     * also a valid treap and later changes keep it balanced.
+     */
+    private static void assignPriorities(Node root, int n) {
+        if (root == null) {
+            return;
+        }
+        int[] priorities = new int[n];
+        for (int i = 0; i < n; i++) {
+            priorities[i] = PRIORITIES.nextInt();
+        }
+        Arrays.sort(priorities);
+
+        Node[] queue = new Node[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        while (head < tail) {
+            Node node = queue[head];
+            node.priority = priorities[n - 1 - head];
+            head++;
+            if (node.left != null) {
+                queue[tail++] = node.left;
+            }
+            if (node.right != null) {
+                queue[tail++] = node.right;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    @Override
+    public Task get(int index) {
+        return nodeAt(index).task;
+    }
+
+    @Override
+    public void set(int index, Task task) {
+        nodeAt(index).task = task;
+    }
+
+    @Override
+    public long add(Task task) {
+        long key = nextKey++;
+        root = merge(root, new Node(task, key, PRIORITIES.nextInt()));
+        return key;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Node removed = nodeAt(index);
+        root = removeAt(root, index);
+        return removed.task;
+    }
+
+    @Override
+    public long keyAt(int index) {
+        return nodeAt(index).key;
+    }
+
+    @Override
+    public int indexOfKey(long key) {
+        int rank = 0;
+        Node t = root;
+        while (t != null) {
+            if (key < t.key) {
+                t = t.left;
+            } else if (key > t.key) {
+                rank += sizeOf(t.left) + 1;
+                t = t.right;
+            } else {
+                return rank + sizeOf(t.left);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long nextKey() {
+        return nextKey;
+    }
+
+    @Override
+    public void restoreKeys(long[] keys, long next) {
+        restoreKeys(root, keys, 0);
+        nextKey = next;
+    }
+
+    /** Gives the nodes of a subtree, in order, the keys from {@code from} on; returns the next index. */
+    private static int restoreKeys(Node node, long[] keys, int from) {
+        if (node == null) {
+            return from;
+        }
+        int i = restoreKeys(node.left, keys, from);
+        node.key = keys[i];
+        return restoreKeys(node.right, keys, i + 1);
+    }
+
+    private Node nodeAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        Node t = root;
+        while (true) {
+            int leftSize = sizeOf(t.left);
+            if (index < leftSize) {
+                t = t.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                t = t.right;
+            } else {
+                return t;
+            }
+        }
+    }
+
+    private static Node removeAt(Node t, int index) {
+        int leftSize = sizeOf(t.left);
+        if (index == leftSize) {
+            return merge(t.left, t.right);
+        }
+        if (index < leftSize) {
+            t.left = removeAt(t.left, index);
+        } else {
+            t.right = removeAt(t.right, index - leftSize - 1);
+        }
+        t.update();
+        return t;
+    }
+
+    /** Joins two subtrees where every node of {@code a} comes before every node of {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        private Task task;
+        private long key;
+        private int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        Node(Task task, long key, int priority) {
+            this.task = task;
+            this.key = key;
+            this.priority = priority;
+        }
+
+        void update() {
+            size = 1 + sizeOf(left) + sizeOf(right);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package natto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index from every three-character substring of lower-cased task names to the tasks containing it.
+ *
+ * <p>A name can only contain a keyword if it contains each of the keyword's trigrams, so intersecting
+ * their {@link PostingList}s narrows a substring search to a few candidates, which the caller still
+ * checks with {@link String#contains(CharSequence)}. Trigrams are taken over UTF-16 chars of the
+ * same lower-cased strings that check uses, so no real match is ever filtered out.
+ */
+class TrigramIndex {
+    /** Keywords shorter than this have no trigrams and must be matched by a scan. */
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    /**
+     * Indexes the trigrams of a lower-cased task name under the given key.
+     *
+     * @param key Key of the task.
+     * @param lowerName Name of the task, lower-cased with {@link String#toLowerCase()}.
+     */
+    void add(long key, String lowerName) {
+        for (int i = 0; i + GRAM_LENGTH <= lowerName.length(); i++) {
+            postings.computeIfAbsent(gram(lowerName, i), g -> new PostingList()).add(key);
+        }
+    }
+
+    /**
+     * Removes a task from the index. The name must be the one it was added with.
+     *
+     * @param key Key of the task.
+     * @param lowerName Name of the task, lower-cased with {@link String#toLowerCase()}.
+     */
+    void remove(long key, String lowerName) {
+        for (int i = 0; i + GRAM_LENGTH <= lowerName.length(); i++) {
+            Long gram = gram(lowerName, i);
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(key) && list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of tasks whose names contain every trigram of the keyword.
+     *
+     * @param lowerKeyword Keyword, lower-cased, of at least {@link #GRAM_LENGTH} chars.
+     * @return Candidate keys in increasing order; a superset of the real matches.
+     */
+    long[] candidates(String lowerKeyword) {
+        assert lowerKeyword.length() >= GRAM_LENGTH : "Keyword too short for a trigram lookup";
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerKeyword.length(); i++) {
+            lists.add(postings.get(gram(lowerKeyword, i)));
+        }
+        return PostingList.intersect(lists);
+    }
+
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
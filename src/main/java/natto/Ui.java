@@ -1,5 +1,10 @@
 package natto;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
@@ -7,6 +12,12 @@ import java.util.Scanner;
  * Handles user interaction, including reading input and displaying output.
  */
 public class Ui {
+    /** Most tasks kept in the last output of a list; any more are only printed. */
+    static final int LAST_OUTPUT_TASKS = 1000;
+    private static final int CONSOLE_BUFFER_CHARS = 1 << 16;
+    private static final String LIST_HEADER = "Here are the tasks in your list:\n\n";
+    private static final String NO_TASKS = "\uD83D\uDE3D No tasks yet! \uD83D\uDE3D";
+
     private String lastOutput = "";
     private final Scanner scanner = new Scanner(System.in);
 
@@ -30,7 +41,19 @@ public class Ui {
      * Prints the greeting message shown when the program starts.
      */
     public void printGreeting() {
+        printGreeting(null);
+    }
+
+    /**
+     * Prints the welcome message, followed by a problem found while starting up.
+     *
+     * @param problem Message about the problem, or null if there was none.
+     */
+    public void printGreeting(String problem) {
         lastOutput = "Hello! I'm Natto \uD83D\uDE38\nWhat can I do for you? \uD83D\uDE3AMeow~";
+        if (problem != null) {
+            lastOutput += "\n\n" + problem;
+        }
         System.out.println(lastOutput);
     }
 
@@ -59,29 +82,96 @@ public class Ui {
     }
 
     /**
-     * Prints the list of tasks currently in the task list.
+     * Prints the list of tasks currently in the task list. A long list is streamed to the console
+     * rather than built up in memory, and only its first {@value #LAST_OUTPUT_TASKS} tasks are kept
+     * as the last output.
      *
      * @param tasks List of tasks to display.
      */
     public void printList(List<Task> tasks) {
-        StringBuilder sb = new StringBuilder();
+        printTasks(LIST_HEADER, tasks, null, 0, tasks.size());
+    }
+
+    /**
+     * Prints all tasks with their IDs, which stay the same as other tasks are deleted.
+     *
+     * @param taskList Tasks to print.
+     */
+    public void printListWithIds(TaskList taskList) {
+        printTasks(LIST_HEADER, taskList.getAll(), taskList, 0, taskList.size());
+    }
+
+    /**
+     * Prints the tasks at some positions of the task list, numbered by their positions.
+     *
+     * @param tasks List of tasks.
+     * @param from Zero-based index of the first task to print.
+     * @param to Zero-based index just past the last task to print.
+     */
+    public void printListRange(List<Task> tasks, int from, int to) {
+        String header = "Here are tasks " + (from + 1) + "-" + to + " of " + tasks.size() + " in your list:\n\n";
+        printTasks(header, tasks, null, from, to);
+    }
 
-        sb.append("Here are the tasks in your list:\n\n");
+    private void printTasks(String header, List<Task> tasks, TaskList ids, int from, int to) {
+        int kept = Math.min(to, from + LAST_OUTPUT_TASKS);
+        StringBuilder sb = new StringBuilder(header);
+        try {
+            appendTasks(sb, tasks, ids, from, kept);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (kept == to) {
+            lastOutput = sb.toString().trim();
+            System.out.println(lastOutput);
+            return;
+        }
+
+        lastOutput = sb.append("\n... and ").append(to - kept)
+                .append(" more. Use list A-B or list --page N to see them.").toString();
+        try {
+            Writer out = new BufferedWriter(new ConsoleWriter(), CONSOLE_BUFFER_CHARS);
+            out.write(header);
+            appendTasks(out, tasks, ids, from, to);
+            out.write(System.lineSeparator());
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes tasks as numbered lines, one task at a time, without building the whole text first.
+     *
+     * @param out Writer to write to; it is not flushed or closed.
+     * @param tasks List of tasks.
+     * @param from Zero-based index of the first task to write.
+     * @param to Zero-based index just past the last task to write.
+     * @throws IOException If the writer fails.
+     */
+    public static void writeList(Writer out, List<Task> tasks, int from, int to) throws IOException {
+        appendTasks(out, tasks, null, from, to);
+    }
 
+    /** Appends tasks as numbered lines separated by line breaks, with their IDs if {@code ids} is given. */
+    private static void appendTasks(Appendable out, List<Task> tasks, TaskList ids, int from, int to)
+            throws IOException {
         if (tasks.isEmpty()) {
-            sb.append("\uD83D\uDE3D No tasks yet! \uD83D\uDE3D");
-        } else {
-            for (int i = 0; i < tasks.size(); i++) {
-                sb.append(i + 1)
-                        .append(". ")
-                        .append(tasks.get(i))
-                        .append("\n");
+            out.append(NO_TASKS);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                out.append('\n');
             }
+            out.append(String.valueOf(i + 1)).append(". ");
+            if (ids != null) {
+                out.append('#').append(String.valueOf(ids.getId(i))).append(' ');
+            }
+            out.append(tasks.get(i).toString());
         }
-
-        lastOutput = sb.toString().trim();
-        System.out.println(lastOutput);
     }
+
     /**
      * Prints confirmation that a task has been marked as done.
      *
@@ -121,11 +211,32 @@ public class Ui {
      * Prints confirmation that a task has been added.
      *
      * @param added The task that was added.
+     * @param id ID given to the task.
      * @param size Updated number of tasks after adding.
      */
-    public void printAdd(Task added, int size) {
-        lastOutput = "Meow~\uD83D\uDE3A. I've added this task:\n  " + added
-                + "\nNow you have " + size + " tasks in the list.";
+    public void printAdd(Task added, long id, int size) {
+        printAdd(added, id, size, List.of());
+    }
+
+    /**
+     * Prints confirmation that a task has been added, warning about any events it overlaps.
+     *
+     * @param added The task that was added.
+     * @param id ID given to the task.
+     * @param size Updated number of tasks after adding.
+     * @param conflicts Other events at the same time; may be empty.
+     */
+    public void printAdd(Task added, long id, int size, List<Task> conflicts) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Meow~\uD83D\uDE3A. I've added this task as #").append(id).append(":\n  ").append(added)
+                .append("\nNow you have ").append(size).append(" tasks in the list.");
+        if (!conflicts.isEmpty()) {
+            sb.append("\nMeow!! \uD83D\uDE40 It clashes with:");
+            for (Task conflict : conflicts) {
+                sb.append("\n  ").append(conflict);
+            }
+        }
+        lastOutput = sb.toString();
         System.out.println("\n" + lastOutput);
     }
 
@@ -136,13 +247,18 @@ public class Ui {
      * @param keyword  The keyword to search for.
      */
     public void printFind(TaskList taskList, String keyword) {
+        printMatches(taskList.find(keyword));
+    }
+
+    /**
+     * Prints the tasks found by a search.
+     *
+     * @param matches Matching tasks, in list order.
+     */
+    public void printMatches(List<Task> matches) {
         StringBuilder sb = new StringBuilder();
         sb.append("Meow~\uD83D\uDE3A. Here are the matching tasks in your list:\n");
 
-        List<Task> matches = taskList.getAll().stream()
-                .filter(t -> t.getName().toLowerCase().contains(keyword.toLowerCase()))
-                .toList();
-
         if (matches.isEmpty()) {
             sb.append("No matching tasks found. Meow~\uD83D\uDE3F.");
         } else {
@@ -158,6 +274,40 @@ public class Ui {
         printLine();
     }
 
+    /**
+     * Prints how far a long import or export has got, without replacing the last output.
+     *
+     * @param action What is being done, such as "Imported".
+     * @param count Number of tasks done so far.
+     */
+    public void printProgress(String action, long count) {
+        System.out.println("  ..." + action + " " + count + " tasks");
+    }
+
+    /**
+     * Prints confirmation that tasks have been imported from a file.
+     *
+     * @param count Number of tasks imported.
+     * @param file File they came from.
+     * @param size Updated number of tasks after importing.
+     */
+    public void printImport(long count, String file, int size) {
+        lastOutput = "Meow~\uD83D\uDE3A. I've imported " + count + " tasks from " + file
+                + ".\nNow you have " + size + " tasks in the list.";
+        System.out.println("\n" + lastOutput);
+    }
+
+    /**
+     * Prints confirmation that tasks have been exported to a file.
+     *
+     * @param count Number of tasks exported.
+     * @param file File they were written to.
+     */
+    public void printExport(long count, String file) {
+        lastOutput = "Meow~\uD83D\uDE3A. I've exported " + count + " tasks to " + file + ".";
+        System.out.println("\n" + lastOutput);
+    }
+
     /**
      * Prints the contact information of the creator.
      *
@@ -171,4 +321,22 @@ public class Ui {
         System.out.println(lastOutput);
         printLine();
     }
+
+    /** Writes to {@link System#out} in its own encoding, for streaming large output. */
+    private static final class ConsoleWriter extends Writer {
+        @Override
+        public void write(char[] buf, int off, int len) {
+            System.out.print(off == 0 && len == buf.length ? buf : Arrays.copyOfRange(buf, off, off + len));
+        }
+
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
 }
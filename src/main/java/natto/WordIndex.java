@@ -0,0 +1,104 @@
+package natto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from the words of task names to the tasks that contain them.
+ *
+ * <p>Tasks are identified by the keys a {@link TaskList} hands out, which increase in list order.
+ * Each word maps to a {@link PostingList}, so a query intersects or merges sorted arrays and its
+ * result is already in list order.
+ */
+class WordIndex {
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    /**
+     * Splits text into lower-case words: maximal runs of letters and digits.
+     *
+     * @param text Text to split.
+     * @return The distinct words, in order of first appearance.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        String lower = text.toLowerCase();
+        int start = -1;
+        for (int i = 0; i < lower.length(); ) {
+            int c = lower.codePointAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(c);
+        }
+        if (start >= 0) {
+            words.add(lower.substring(start));
+        }
+        return words;
+    }
+
+    /**
+     * Indexes the words of a task name under the given key.
+     *
+     * @param key Key of the task.
+     * @param name Name of the task.
+     */
+    void add(long key, String name) {
+        for (String word : tokenize(name)) {
+            postings.computeIfAbsent(word, w -> new PostingList()).add(key);
+        }
+    }
+
+    /**
+     * Removes a task from the index. The name must be the one it was added with.
+     *
+     * @param key Key of the task.
+     * @param name Name of the task.
+     */
+    void remove(long key, String name) {
+        for (String word : tokenize(name)) {
+            PostingList list = postings.get(word);
+            if (list != null && list.remove(key) && list.size() == 0) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of tasks whose names contain every one of the given words.
+     *
+     * @param words Words to look for; each is split as by {@link #tokenize(String)}.
+     * @return Matching keys in increasing order.
+     */
+    long[] matchAll(List<String> words) {
+        return PostingList.intersect(lookup(words));
+    }
+
+    /**
+     * Returns the keys of tasks whose names contain at least one of the given words.
+     *
+     * @param words Words to look for; each is split as by {@link #tokenize(String)}.
+     * @return Matching keys in increasing order.
+     */
+    long[] matchAny(List<String> words) {
+        return PostingList.union(lookup(words));
+    }
+
+    private List<PostingList> lookup(List<String> words) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String word : words) {
+            for (String token : tokenize(word)) {
+                lists.add(postings.get(token));
+            }
+        }
+        return lists;
+    }
+}
@@ -0,0 +1,88 @@
+package natto.ui;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The messages of a conversation, of which only the most recent are kept in memory.
+ *
+ * <p>Messages are added to the list a view shows, such as the items of a {@code ListView}. Once it
+ * holds more than the cap, the oldest quarter of the cap is appended to a spill file and removed from
+ * the list in a single change, so the view never has more than the cap to lay out and a long session
+ * does not keep growing the heap. The spill file is a plain transcript of the session, started afresh
+ * on the first spill.
+ */
+final class ConversationHistory {
+    /** Number of messages kept in memory when none is configured. */
+    static final int DEFAULT_CAP = 2000;
+    static final String USER_PREFIX = "You: ";
+    static final String NATTO_PREFIX = "Natto: ";
+
+    private final List<Message> shown;
+    private final int cap;
+    private final Path spillFile;
+    private int spilledCount;
+
+    /**
+     * Creates a history that adds messages to the given list.
+     *
+     * @param shown List the view shows; messages already in it count towards the cap.
+     * @param cap Most messages to keep in the list.
+     * @param spillFile File the oldest messages are moved to.
+     */
+    ConversationHistory(List<Message> shown, int cap, Path spillFile) {
+        if (cap < 1) {
+            throw new IllegalArgumentException("The history cap must be at least 1, not " + cap);
+        }
+        this.shown = shown;
+        this.cap = cap;
+        this.spillFile = spillFile;
+    }
+
+    /**
+     * Adds messages to the end of the conversation, spilling the oldest ones if it is over the cap.
+     * Spilled messages leave the list even if they cannot be written, so memory stays bounded.
+     *
+     * @param messages Messages to add, oldest first.
+     * @throws IOException If the spill file cannot be written.
+     */
+    void add(Message... messages) throws IOException {
+        shown.addAll(List.of(messages));
+        if (shown.size() <= cap) {
+            return;
+        }
+        List<Message> oldest = shown.subList(0, shown.size() - cap + cap / 4);
+        try {
+            spill(oldest);
+        } finally {
+            oldest.clear();
+        }
+    }
+
+    private void spill(List<Message> oldest) throws IOException {
+        Path parent = spillFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        StandardOpenOption mode = spilledCount == 0 ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND;
+        try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            for (Message message : oldest) {
+                out.write(message.isUser() ? USER_PREFIX : NATTO_PREFIX);
+                out.write(message.text());
+                out.newLine();
+            }
+        }
+        spilledCount += oldest.size();
+    }
+
+    /** Returns the number of messages moved to the spill file so far. */
+    int spilledCount() {
+        return spilledCount;
+    }
+}
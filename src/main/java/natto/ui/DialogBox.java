@@ -1,72 +1,92 @@
 package natto.ui;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 import javafx.scene.shape.Circle;
 
 
 /**
- * An example of a custom control using FXML.
  * This control represents a dialog box consisting of an ImageView to represent the speaker's face and a label
  * containing text from the speaker.
+ *
+ * <p>The box is built in code rather than loaded from FXML, which would parse the same file again for
+ * every message. Its stylesheet is looked up once and JavaFX parses it once for all boxes. Pictures are
+ * shared {@link Image}s passed in by the caller; each box still needs its own circle clip, because
+ * JavaFX allows a node to be the clip of only one other node.
  */
 public class DialogBox extends HBox {
+    private static final String STYLESHEET = DialogBox.class.getResource("/css/dialog-box.css").toExternalForm();
+    private static final double PICTURE_SIZE = 70;
+    private static final Insets PADDING = new Insets(15, 5, 15, 5);
 
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
 
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(DialogBox.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private boolean isReply;
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+    /**
+     * Creates an empty dialog box, laid out as the user's, to be filled in with {@link #show}.
+     */
+    DialogBox() {
+        dialog.setId("dialog");
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
 
-        double size = 70;
-        displayPicture.setFitWidth(size);
-        displayPicture.setFitHeight(size);
+        displayPicture.setId("displayPicture");
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
         displayPicture.setPreserveRatio(false);
+        displayPicture.setClip(new Circle(PICTURE_SIZE / 2, PICTURE_SIZE / 2, PICTURE_SIZE / 2));
 
-        Circle clip = new Circle(size / 2, size / 2, size / 2);
-        displayPicture.setClip(clip);
+        getStylesheets().add(STYLESHEET);
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(400);
+        setPadding(PADDING);
+        getChildren().setAll(dialog, displayPicture);
     }
 
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
-
-        dialog.getStyleClass().add("reply-label");
+    /**
+     * Shows a message, so that a list cell can reuse one dialog box for whichever message it holds.
+     * A reply has the picture on the left and the label on the right; otherwise they are swapped.
+     *
+     * @param text Text of the message.
+     * @param img Picture of the speaker.
+     * @param isReply Whether the message is Natto's reply.
+     */
+    void show(String text, Image img, boolean isReply) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        if (this.isReply == isReply) {
+            return;
+        }
+        this.isReply = isReply;
+        if (isReply) {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+            dialog.getStyleClass().add("reply-label");
+        } else {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+            dialog.getStyleClass().remove("reply-label");
+        }
     }
 
-
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+        DialogBox db = new DialogBox();
+        db.show(text, img, false);
+        return db;
     }
 
     public static DialogBox getNattoDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
+        DialogBox db = new DialogBox();
+        db.show(text, img, true);
         return db;
     }
     private void changeDialogStyle(String commandType) {
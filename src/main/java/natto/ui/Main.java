@@ -15,6 +15,7 @@ import natto.Natto;
 public class Main extends Application {
 
     private final Natto natto = new Natto();
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
@@ -24,7 +25,8 @@ public class Main extends Application {
 
             Scene scene = new Scene(ap);
             stage.setScene(scene);
-            fxmlLoader.<natto.ui.MainWindow>getController().setNatto(natto);
+            mainWindow = fxmlLoader.getController();
+            mainWindow.setNatto(natto);
 
             stage.setTitle("Natto");
             stage.setResizable(false);
@@ -35,4 +37,13 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.shutdown();
+        } else {
+            natto.close();
+        }
+    }
 }
@@ -0,0 +1,131 @@
+package natto.ui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TextField;
+import javafx.scene.image.Image;
+import javafx.scene.layout.AnchorPane;
+import javafx.util.Duration;
+import natto.Natto;
+
+/**
+ * Controller for MainWindow. Provides the layout for the other controls.
+ *
+ * <p>The conversation is a list view, which lays out only the messages in sight. The system property
+ * {@code natto.history} caps how many messages it keeps, {@value ConversationHistory#DEFAULT_CAP} by
+ * default; older ones are moved to {@code data/NatConversation.txt}.
+ *
+ * <p>Commands run one at a time, in the order they were sent, on a background thread, so saving or
+ * searching a large task list never freezes the window. Natto is only used from that thread once the
+ * greeting has been shown. Each reply is shown back on the JavaFX thread, and a spinner appears while
+ * a command takes more than a moment.
+ */
+public class MainWindow extends AnchorPane {
+    private static final String HISTORY_PROPERTY = "natto.history";
+    private static final Path CONVERSATION_PATH = Paths.get("data", "NatConversation.txt");
+    /** How long a command may run before the spinner appears, so quick commands do not flicker it. */
+    private static final Duration BUSY_DELAY = Duration.millis(150);
+
+    @FXML
+    private ListView<Message> conversation;
+    @FXML
+    private TextField userInput;
+    @FXML
+    private Button sendButton;
+    @FXML
+    private ProgressIndicator busyIndicator;
+
+    private Natto natto;
+    private ConversationHistory history;
+    /** Runs commands in order; not a daemon, so a command that is saving finishes before the app exits. */
+    private final ExecutorService commandRunner =
+            Executors.newSingleThreadExecutor(task -> new Thread(task, "natto-commands"));
+    private final PauseTransition busyDelay = new PauseTransition(BUSY_DELAY);
+    /** Commands sent but not yet answered; only touched on the JavaFX thread. */
+    private int pendingCommands;
+
+    private final Image userImage =
+            new Image(this.getClass().getResourceAsStream("/images/Chillguy.jpg"));
+    private final Image nattoImage =
+            new Image(this.getClass().getResourceAsStream("/images/natto.jpg"));
+
+    /**
+     * Initializes the main window, setting up necessary bindings and loading resources.
+     */
+    @FXML
+    public void initialize() {
+        conversation.setCellFactory(list -> new MessageCell(list, userImage, nattoImage));
+        history = new ConversationHistory(conversation.getItems(),
+                Integer.getInteger(HISTORY_PROPERTY, ConversationHistory.DEFAULT_CAP), CONVERSATION_PATH);
+        busyDelay.setOnFinished(event -> busyIndicator.setVisible(true));
+        System.out.println(getClass().getResource("/images/catWP.png"));
+    }
+
+    public void setNatto(Natto n) {
+        natto = n;
+        show(new Message(natto.getGreeting(), false));
+    }
+
+    /**
+     * Lets commands that have been sent finish, then saves every change they made and stops the
+     * thread that runs them.
+     */
+    public void shutdown() {
+        commandRunner.execute(natto::close);
+        commandRunner.shutdown();
+    }
+
+    @FXML
+    private void handleUserInput() {
+        String input = userInput.getText();
+        userInput.clear();
+        show(new Message(input, true));
+        if (pendingCommands++ == 0) {
+            busyDelay.playFromStart();
+        }
+        commandRunner.execute(() -> {
+            String response = runCommand(input);
+            boolean isExit = natto.isExit();
+            Platform.runLater(() -> showReply(response, isExit));
+        });
+    }
+
+    /** Runs a command on the command thread, turning an unexpected failure into a reply. */
+    private String runCommand(String input) {
+        try {
+            return natto.getResponse(input);
+        } catch (RuntimeException e) {
+            return "Sorry, that command failed: " + e.getMessage();
+        }
+    }
+
+    private void showReply(String response, boolean isExit) {
+        show(new Message(response, false));
+        if (--pendingCommands == 0) {
+            busyDelay.stop();
+            busyIndicator.setVisible(false);
+        }
+        if (isExit) {
+            Platform.exit();
+        }
+    }
+
+    private void show(Message... messages) {
+        try {
+            history.add(messages);
+        } catch (IOException e) {
+            System.err.println("Could not save earlier messages to " + CONVERSATION_PATH + ": " + e.getMessage());
+        }
+        conversation.scrollTo(conversation.getItems().size() - 1);
+    }
+}
@@ -0,0 +1,10 @@
+package natto.ui;
+
+/**
+ * One message in the conversation shown by the main window.
+ *
+ * @param text What was said.
+ * @param isUser Whether the user said it, rather than Natto.
+ */
+record Message(String text, boolean isUser) {
+}
@@ -0,0 +1,40 @@
+package natto.ui;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+/**
+ * List cell that shows a message in a dialog box.
+ *
+ * <p>The list view creates only enough cells to fill the window and reuses them as it scrolls, so each
+ * cell builds its dialog box once and then only changes its text, picture and side.
+ */
+final class MessageCell extends ListCell<Message> {
+    /** Width left for the list's vertical scroll bar, so dialog boxes wrap instead of scrolling sideways. */
+    private static final double SCROLL_BAR_WIDTH = 20;
+
+    private final DialogBox box = new DialogBox();
+    private final Image userImage;
+    private final Image nattoImage;
+
+    MessageCell(ListView<Message> list, Image userImage, Image nattoImage) {
+        this.userImage = userImage;
+        this.nattoImage = nattoImage;
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        box.prefWidthProperty().bind(list.widthProperty().subtract(SCROLL_BAR_WIDTH));
+        box.maxWidthProperty().bind(box.prefWidthProperty());
+    }
+
+    @Override
+    protected void updateItem(Message message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        box.show(message.text(), message.isUser() ? userImage : nattoImage, !message.isUser());
+        setGraphic(box);
+    }
+}
@@ -0,0 +1,72 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ArrayTaskStoreTest {
+    @Test
+    public void randomOperations_sameAsPlainList() {
+        Random random = new Random(5);
+        List<Task> tasks = new ArrayList<>();
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(new Todo("loaded " + i));
+            keys.add(i + 1L);
+        }
+        ArrayTaskStore store = new ArrayTaskStore(tasks);
+        List<Long> removedKeys = new ArrayList<>();
+
+        for (int op = 0; op < 20000; op++) {
+            if (op % 1000 == 0) {
+                assertEquals(tasks, new TaskStoreView(store));
+            }
+            int choice = random.nextInt(5);
+            if (choice == 0 || tasks.isEmpty()) {
+                Todo todo = new Todo("added " + op);
+                tasks.add(todo);
+                keys.add(store.add(todo));
+            } else if (choice == 1) {
+                int index = random.nextInt(tasks.size());
+                assertSame(tasks.remove(index), store.remove(index));
+                removedKeys.add(keys.remove(index));
+            } else if (choice == 2) {
+                int index = random.nextInt(tasks.size());
+                Todo todo = new Todo("set " + op);
+                tasks.set(index, todo);
+                store.set(index, todo);
+            } else {
+                int index = random.nextInt(tasks.size());
+                long key = keys.get(index);
+                assertSame(tasks.get(index), store.get(index));
+                assertEquals(key, store.keyAt(index));
+                assertEquals(index, store.indexOfKey(key));
+                assertSame(tasks.get(index), store.getByKey(key));
+            }
+        }
+        assertEquals(tasks, new TaskStoreView(store));
+        for (long key : removedKeys) {
+            assertEquals(-1, store.indexOfKey(key));
+            assertNull(store.getByKey(key));
+        }
+        assertEquals(tasks, store.asList());
+    }
+
+    @Test
+    public void restoreKeys_afterRemovals_keysFollowPositions() {
+        ArrayTaskStore store = new ArrayTaskStore(List.of(new Todo("a"), new Todo("b"), new Todo("c")));
+        store.remove(0);
+
+        store.restoreKeys(new long[] {7, 9}, 12);
+
+        assertEquals(1, store.indexOfKey(9));
+        assertEquals("[T][ ] c", store.getByKey(9).toString());
+        assertEquals(12, store.add(new Todo("d")));
+    }
+}
@@ -0,0 +1,111 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BatchTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void executeBatch_allCommandsSucceed_savedOnce() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Natto natto = new Natto(file);
+
+        List<String> responses = natto.executeBatch(List.of("todo read book", "", "mark 1",
+                "deadline return book /by 2026-03-10"));
+
+        assertEquals(3, responses.size());
+        assertTrue(responses.get(1).contains("[X] read book"));
+        List<Task> saved = new Storage(file).loadTasks();
+        assertEquals(2, saved.size());
+        assertEquals("[T][X] read book", saved.get(0).toString());
+    }
+
+    @Test
+    public void executeBatch_commandFails_nothingKept() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Natto natto = new Natto(file);
+        natto.getResponse("todo keep me");
+
+        NattoException e = assertThrows(NattoException.class, () ->
+                natto.executeBatch(List.of("todo one", "todo two", "delete 9")));
+
+        assertTrue(e.getMessage().startsWith("Line 3: No such task exists."));
+        assertTrue(natto.getResponse("list").contains("1. [T][ ] keep me"));
+        assertEquals(1, new Storage(file).loadTasks().size());
+    }
+
+    @Test
+    public void executeBatch_reloadAfterRollbackFails_dataFileLeftInPlace() throws Exception {
+        Path data = dir.resolve("tasks.txt");
+        new Storage(data.toString()).saveTasks(List.of(new Todo("keep me")));
+        Natto natto = new Natto(data.toString());
+        natto.registerCommand("spoil", (tokens, tasks) -> (list, ui, storage) -> {
+            try {
+                Files.writeString(dir.resolve("tasks.txt.journal.99"), "mark | x" + System.lineSeparator());
+            } catch (IOException e) {
+                throw new NattoException(e.getMessage());
+            }
+            throw new NattoException("Spoiled the journal.");
+        });
+
+        NattoException e = assertThrows(NattoException.class, () ->
+                natto.executeBatch(List.of("todo one", "spoil")));
+
+        assertTrue(e.getMessage().contains("could not be reloaded"));
+        assertTrue(Files.exists(data));
+        assertFalse(Files.exists(dir.resolve("tasks.txt.broken")));
+        assertTrue(natto.getResponse("todo two").contains("Changes are not being saved"));
+        assertTrue(Files.readAllLines(data).contains("T | 0 | keep me"));
+    }
+
+    @Test
+    public void executeBatch_lazyListRolledBack_oldDataFileClosed() throws Exception {
+        Path fds = Path.of("/proc/self/fd");
+        if (!Files.isDirectory(fds)) {
+            return;
+        }
+        String file = dir.resolve("tasks.txt").toString();
+        new Storage(file).saveTasks(List.of(new Todo("keep me")));
+        System.setProperty("natto.tasklist", "lazy");
+        try {
+            Natto natto = new Natto(file);
+            long before = openFiles(fds, file);
+
+            for (int i = 0; i < 5; i++) {
+                assertThrows(NattoException.class, () -> natto.executeBatch(List.of("todo one", "delete 9")));
+            }
+
+            assertEquals(before, openFiles(fds, file));
+            assertTrue(natto.getResponse("list").contains("1. [T][ ] keep me"));
+        } finally {
+            System.clearProperty("natto.tasklist");
+        }
+    }
+
+    /** Counts the descriptors this process holds open on the given file. */
+    private static long openFiles(Path fds, String file) throws IOException {
+        Path target = Path.of(file).toRealPath();
+        try (Stream<Path> links = Files.list(fds)) {
+            return links.filter(link -> {
+                try {
+                    return Files.readSymbolicLink(link).equals(target);
+                } catch (IOException e) {
+                    return false;
+                }
+            }).count();
+        }
+    }
+}
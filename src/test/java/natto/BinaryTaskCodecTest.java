@@ -0,0 +1,70 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryTaskCodecTest {
+    @TempDir
+    Path dir;
+
+    private List<Task> sampleTasks() {
+        Deadline deadline = new Deadline("return | book", LocalDateTime.of(2019, 6, 6, 23, 59));
+        deadline.mark();
+        return List.of(new Todo("read book"), deadline,
+                new Event("meeting", LocalDateTime.of(2019, 8, 6, 14, 0), LocalDateTime.of(2019, 8, 7, 16, 0)),
+                new Contact("Bob", "9123 4567", "bob@example.com", "NUS"));
+    }
+
+    @Test
+    public void writeThenRead_allTaskTypes_roundTrip() throws Exception {
+        Path file = dir.resolve("tasks.bin");
+        try (FileOutputStream out = new FileOutputStream(file.toFile())) {
+            BinaryTaskCodec.write(out, new ArrayTaskStore(sampleTasks()), 7);
+        }
+
+        List<Task> loaded = new ArrayList<>();
+        long seq = BinaryTaskCodec.read(file, loaded);
+
+        assertTrue(BinaryTaskCodec.isBinary(file));
+        assertEquals(7, seq);
+        assertEquals(sampleTasks().toString(), loaded.toString());
+        assertEquals("5 1+4", BinaryTaskCodec.readKeys(file).format());
+    }
+
+    @Test
+    public void convert_textToBinaryAndBack_sameTasks() throws Exception {
+        Path text = dir.resolve("tasks.txt");
+        Path binary = dir.resolve("tasks.bin");
+        Path back = dir.resolve("back.txt");
+        new Storage(text.toString()).saveTasks(sampleTasks());
+
+        TaskFileConverter.convert(text, binary, SnapshotFormat.BINARY);
+        TaskFileConverter.convert(binary, back, SnapshotFormat.TEXT);
+
+        assertEquals(Files.readString(text), Files.readString(back));
+    }
+
+    @Test
+    public void storage_binaryFormat_loadsWithJournal() throws Exception {
+        String file = dir.resolve("tasks.dat").toString();
+        Storage storage = new Storage(file, Durability.BATCHED, SnapshotFormat.BINARY);
+        storage.saveTasks(sampleTasks());
+        storage.appendMark(0);
+        storage.flush();
+
+        List<Task> loaded = new Storage(file).loadTasks();
+
+        assertEquals(4, loaded.size());
+        assertEquals("[T][X] read book", loaded.get(0).toString());
+    }
+}
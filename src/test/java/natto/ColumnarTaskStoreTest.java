@@ -0,0 +1,118 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ColumnarTaskStoreTest {
+    private static Task randomTask(Random random, int n) {
+        LocalDateTime time = LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(random.nextInt(100_000));
+        Task task;
+        switch (random.nextInt(4)) {
+        case 0:
+            task = new Deadline("deadline \u00e9 " + n, time);
+            break;
+        case 1:
+            task = new Event("event " + n, time, time.plusHours(2));
+            break;
+        case 2:
+            task = new Contact("contact " + n, "9123 4567", "a@b.c", n % 2 == 0 ? "" : "1 Road");
+            break;
+        default:
+            task = new Todo("todo \uD83D\uDE38 " + n);
+            break;
+        }
+        if (random.nextBoolean()) {
+            task.mark();
+        }
+        return task;
+    }
+
+    @Test
+    public void randomOperations_sameAsArrayStore() {
+        checkAgainstArrayStore(false);
+    }
+
+    @Test
+    public void randomOperations_offHeap_sameAsArrayStore() {
+        checkAgainstArrayStore(true);
+    }
+
+    private void checkAgainstArrayStore(boolean isOffHeap) {
+        Random random = new Random(5);
+        List<Task> loaded = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            loaded.add(randomTask(random, i));
+        }
+        TaskStore columns = new ColumnarTaskStore(loaded, isOffHeap);
+        TaskStore array = new ArrayTaskStore(loaded);
+
+        for (int op = 0; op < 5000; op++) {
+            int choice = random.nextInt(4);
+            if (choice == 0 || array.size() == 0) {
+                Task task = randomTask(random, op);
+                assertEquals(array.add(task), columns.add(task));
+            } else if (choice == 1) {
+                int index = random.nextInt(array.size());
+                assertEquals(array.remove(index).toString(), columns.remove(index).toString());
+            } else if (choice == 2) {
+                int index = random.nextInt(array.size());
+                Task task = columns.get(index);
+                task.mark();
+                columns.set(index, task);
+                array.get(index).mark();
+            } else {
+                int index = random.nextInt(array.size());
+                assertEquals(array.get(index).toString(), columns.get(index).toString());
+                assertEquals(array.keyAt(index), columns.keyAt(index));
+            }
+        }
+        assertEquals(new TaskStoreView(array).toString(), new TaskStoreView(columns).toString());
+    }
+
+    @Test
+    public void taskList_columnarMode_changesWrittenBack() {
+        TaskList tasks = new TaskList(List.of(new Todo("read book"), new Todo("buy milk")), TaskListMode.COLUMNAR);
+
+        tasks.mark(1);
+        tasks.get(0).mark();
+
+        assertEquals("[[T][ ] read book, [T][X] buy milk]", tasks.getAll().toString());
+        assertEquals("[[T][X] buy milk]", tasks.search(List.of("milk"), true).toString());
+    }
+
+    @Test
+    public void snapshotWriters_fromColumns_sameAsFromTasks() throws IOException {
+        Random random = new Random(11);
+        List<Task> loaded = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            loaded.add(randomTask(random, i));
+        }
+        ColumnarTaskStore columns = new ColumnarTaskStore(loaded, true);
+        columns.remove(3);
+        ArrayTaskStore objects = new ArrayTaskStore(new TaskStoreView(columns));
+        TaskKeys.of(columns).restore(objects);
+
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            assertArrayEquals(snapshot(objects, format), snapshot(columns, format), format.toString());
+        }
+    }
+
+    private static byte[] snapshot(TaskStore store, SnapshotFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (format == SnapshotFormat.BINARY) {
+            BinaryTaskCodec.write(out, store, 9);
+        } else {
+            Storage.writeTextSnapshot(out, store, 9);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,70 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CommandRegistryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void parse_builtIns_giveTypedCommands() throws NattoException {
+        CommandRegistry registry = CommandRegistry.withBuiltIns();
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("a"));
+
+        assertEquals(new Commands.Mark(0), registry.parse("mark #1", tasks));
+        assertEquals(new Commands.ListTasks(true, 0, Commands.ListTasks.ALL), registry.parse("list --ids", tasks));
+        assertEquals(new Commands.Search(List.of("book", "report"), false),
+                registry.parse("search book report /any", tasks));
+        assertEquals(new Commands.Between(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 7)),
+                registry.parse("between 2026-03-01 2026-03-07", tasks));
+        assertEquals("Please use a keyword like: todo, deadline, event, list",
+                assertThrows(NattoException.class, () -> registry.parse("fly away", tasks)).getMessage());
+    }
+
+    @Test
+    public void register_pluginCommand_parsedAndRun() throws NattoException {
+        CommandRegistry registry = CommandRegistry.withBuiltIns();
+        registry.register("count", (tokens, tasks) -> (list, ui, storage) ->
+                ui.printError("There are " + list.size() + " tasks."));
+        TaskList tasks = new TaskList();
+        Ui ui = new Ui();
+
+        registry.parse("count", tasks).execute(tasks, ui, new Storage(dir.resolve("tasks.txt").toString()));
+
+        assertEquals("There are 0 tasks.", ui.getLastOutput());
+        assertThrows(IllegalArgumentException.class, () -> registry.register("count", (tokens, tasks1) -> null));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("two words", (tokens, tasks1) -> null));
+    }
+
+    @Test
+    public void execute_sameCommands_replayOnAnotherList() throws NattoException {
+        CommandRegistry registry = CommandRegistry.withBuiltIns();
+        Storage storage = new Storage(dir.resolve("tasks.txt").toString());
+        Ui ui = new Ui();
+        TaskList first = new TaskList();
+        List<Command> commands = List.of(registry.parse("todo read book", first),
+                registry.parse("deadline return book /by 2026-03-10", first));
+        for (Command command : commands) {
+            command.execute(first, ui, storage);
+        }
+
+        TaskList second = new TaskList();
+        for (Command command : commands) {
+            command.execute(second, ui, storage);
+        }
+
+        assertEquals(2, second.size());
+        assertEquals(first.get(1).toString(), second.get(1).toString());
+        assertTrue(ui.getLastOutput().contains("Now you have 2 tasks"));
+    }
+}
@@ -0,0 +1,87 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import natto.CommandTokenizer.Group;
+import natto.CommandTokenizer.Marker;
+
+public class CommandTokenizerTest {
+    @Test
+    public void tokenize_commandWordAndArgs_skipsExtraWhitespace() {
+        CommandTokenizer tokens = new CommandTokenizer("  delete \t 3   #4 ");
+        assertEquals("delete", tokens.commandWord());
+        assertTrue(tokens.isCommand("delete"));
+        assertFalse(tokens.isCommand("del"));
+        assertEquals(2, tokens.argCount());
+        assertEquals("#4", tokens.arg(1));
+        assertEquals("3", tokens.arg(0));
+        assertEquals("3   #4", tokens.rest());
+    }
+
+    @Test
+    public void tokenize_blankLine_hasEmptyCommandWord() {
+        CommandTokenizer tokens = new CommandTokenizer("   ");
+        assertEquals("", tokens.commandWord());
+        assertEquals(0, tokens.argCount());
+        assertEquals("", tokens.rest());
+    }
+
+    @Test
+    public void value_runsToNextMarkerOfSameGroup() {
+        CommandTokenizer tokens = new CommandTokenizer("event talk a/b /to 1600 /from 2026-03-10 1400");
+        assertEquals("talk a/b", tokens.body(Group.DATE));
+        assertEquals("2026-03-10 1400", tokens.value(Marker.FROM));
+        assertEquals("1600", tokens.value(Marker.TO));
+        assertNull(tokens.value(Marker.BY));
+    }
+
+    @Test
+    public void parseEvent_toBeforeFrom_parsesBothDates() throws NattoException {
+        Event event = Parser.parseEvent("event talk /to 1600 /from 2026-03-10 1400");
+        assertEquals(LocalDateTime.of(2026, 3, 10, 14, 0), event.from);
+        assertEquals(LocalDateTime.of(2026, 3, 10, 16, 0), event.to);
+    }
+
+    @Test
+    public void parseDeadline_invalidCalendarDate_throwsNattoException() {
+        assertThrows(NattoException.class, () -> Parser.parseDeadline("deadline tax /by 2026-02-30"));
+    }
+
+    @Test
+    public void parseContact_multiWordAddress_keepsWholeAddress() throws NattoException {
+        Contact contact = Parser.parseContact("contact Jane Tan p/91234567 e/jane@example.com a/12 Kent Ridge Road");
+        assertEquals("Jane Tan", contact.getName());
+        assertEquals("91234567", contact.getPhone());
+        assertEquals("jane@example.com", contact.getEmail());
+        assertEquals("12 Kent Ridge Road", contact.getAddress());
+    }
+
+    @Test
+    public void parseContact_missingEmail_throwsNattoException() {
+        NattoException e = assertThrows(NattoException.class, () -> Parser.parseContact("contact Jane p/9123"));
+        assertEquals("Missing or empty value for e/", e.getMessage());
+    }
+
+    @Test
+    public void parseSearch_skipsAnyMarker() throws NattoException {
+        assertEquals(List.of("book", "report"), Parser.parseSearch("search book /any report"));
+        assertTrue(Parser.isSearchAny("search book /any report"));
+        assertFalse(Parser.isSearchAny("search book /anything"));
+    }
+
+    @Test
+    public void hasShape_digitsAndLiterals() {
+        assertTrue(CommandTokenizer.hasShape("2026-03-10", "dddd-dd-dd"));
+        assertFalse(CommandTokenizer.hasShape("2026-3-10", "dddd-dd-dd"));
+        assertFalse(CommandTokenizer.hasShape("2026/03/10", "dddd-dd-dd"));
+    }
+}
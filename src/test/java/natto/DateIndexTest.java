@@ -0,0 +1,75 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class DateIndexTest {
+    private static LocalDateTime at(int day, int hour) {
+        return LocalDateTime.of(2026, 3, day, hour, 0);
+    }
+
+    private static String names(List<Task> tasks) {
+        return tasks.stream().map(Task::getName).toList().toString();
+    }
+
+    private TaskList sampleList() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Deadline("report", at(10, 23)));
+        tasks.add(new Event("conference", at(1, 9), at(12, 17)));
+        tasks.add(new Todo("no date"));
+        tasks.add(new Deadline("rent", at(1, 0)));
+        tasks.add(new Event("lunch", at(10, 12), at(10, 13)));
+        tasks.add(new Event("trip", at(20, 8), at(22, 20)));
+        return tasks;
+    }
+
+    @Test
+    public void dueBetween_oneDay_onlyDeadlinesThatDay() {
+        TaskList tasks = sampleList();
+
+        assertEquals("[report]", names(tasks.dueBetween(at(10, 0), at(11, 0))));
+        assertEquals("[rent, report]", names(tasks.dueBetween(at(1, 0), at(31, 0))));
+    }
+
+    @Test
+    public void datedBetween_mixedTasks_earliestFirst() {
+        TaskList tasks = sampleList();
+
+        assertEquals("[rent, conference, lunch, report]", names(tasks.datedBetween(at(1, 0), at(11, 0))));
+    }
+
+    @Test
+    public void eventsOverlapping_longEventStartedEarlier_found() {
+        TaskList tasks = sampleList();
+
+        assertEquals("[conference, lunch]", names(tasks.eventsOverlapping(at(10, 0), at(11, 0))));
+        assertEquals("[trip]", names(tasks.eventsOverlapping(at(22, 0), at(23, 0))));
+        assertEquals("[]", names(tasks.eventsOverlapping(at(13, 0), at(20, 0))));
+    }
+
+    @Test
+    public void eventsOverlapping_afterRemove_indexKeptUpToDate() {
+        TaskList tasks = sampleList();
+        tasks.eventsOverlapping(at(1, 0), at(31, 0));
+
+        tasks.remove(1);
+        tasks.add(new Event("dinner", at(10, 19), at(10, 21)));
+
+        assertEquals("[lunch, dinner]", names(tasks.eventsOverlapping(at(10, 0), at(11, 0))));
+    }
+
+    @Test
+    public void parseDateRange_backwards_rejected() throws Exception {
+        LocalDate[] range = Parser.parseDateRange("between 2026-03-01  2026-03-07");
+        assertEquals(LocalDate.of(2026, 3, 7), range[1]);
+        NattoException e = assertThrows(NattoException.class,
+                () -> Parser.parseDateRange("between 2026-03-07 2026-03-01"));
+        assertEquals("The end date cannot be before the start date.", e.getMessage());
+    }
+}
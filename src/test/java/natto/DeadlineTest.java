@@ -1,5 +1,7 @@
 package natto;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
@@ -31,4 +33,17 @@ public class DeadlineTest {
         assertTrue(result.contains("Finish IP"));
         assertTrue(result.contains("[X]"));
     }
+
+    @Test
+    public void deadlineTest3RenderingCachedUntilMarked() {
+        Deadline d = new Deadline("Finish IP", LocalDateTime.of(2026, 1, 29, 12, 0));
+
+        String first = d.toString();
+        assertSame(first, d.toString());
+
+        d.mark();
+        assertTrue(d.toString().startsWith("[D][X] Finish IP (by: "));
+        d.unmark();
+        assertEquals(first, d.toString());
+    }
 }
@@ -0,0 +1,48 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class DirectTextArenaTest {
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void release_sameBlockSize_reusedFromFreeList() {
+        DirectTextArena arena = new DirectTextArena(0);
+        int first = arena.add(utf8("read book"));
+        arena.add(utf8("buy milk"));
+        long used = arena.used();
+
+        arena.release(first, 9);
+        assertEquals(16, arena.garbage());
+        int reused = arena.add(utf8("call mum!!"));
+
+        assertEquals(first, reused);
+        assertEquals(used, arena.used());
+        assertEquals(0, arena.garbage());
+        assertEquals("call mum!!", arena.get(reused, 10));
+    }
+
+    @Test
+    public void add_beyondChunk_startsNewChunkAndKeepsOldText() {
+        DirectTextArena arena = new DirectTextArena(0, 4096);
+        int[] offsets = new int[1000];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = arena.add(utf8("task number " + i));
+        }
+
+        for (int i = 0; i < offsets.length; i++) {
+            String text = "task number " + i;
+            assertEquals(text, arena.get(offsets[i], text.length()));
+        }
+        assertTrue(arena.matches(offsets[7], 13, utf8("task number 7")));
+        assertFalse(arena.matches(offsets[7], 13, utf8("task number 8")));
+    }
+}
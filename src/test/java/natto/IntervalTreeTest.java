@@ -0,0 +1,90 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IntervalTreeTest {
+    private static LocalDateTime at(int day, int hour) {
+        return LocalDateTime.of(2026, 3, day, hour, 0);
+    }
+
+    private static List<String> names(List<Task> tasks) {
+        return tasks.stream().map(Task::getName).toList();
+    }
+
+    @Test
+    public void overlapping_randomInsertsAndRemoves_sameAsScan() {
+        Random random = new Random(11);
+        int n = 2000;
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = random.nextInt(10_000);
+            ends[i] = starts[i] + random.nextInt(200);
+            keys[i] = i;
+        }
+        IntervalTree tree = IntervalTree.build(starts.clone(), ends.clone(), keys.clone());
+        boolean[] present = new boolean[n];
+        Arrays.fill(present, true);
+        for (int i = 0; i < n; i += 3) {
+            tree.remove(starts[i], i);
+            present[i] = false;
+        }
+        for (int i = 0; i < n; i += 6) {
+            tree.insert(starts[i], ends[i], i);
+            present[i] = true;
+        }
+
+        for (int q = 0; q < 200; q++) {
+            long lo = random.nextInt(10_000);
+            long hi = lo + random.nextInt(300);
+            List<Long> expected = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (present[i] && starts[i] < hi && ends[i] > lo) {
+                    expected.add((long) i);
+                }
+            }
+            List<Long> actual = new ArrayList<>();
+            tree.overlapping(lo, hi, actual);
+            actual.sort(null);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void conflictsWith_newEvent_reportsOverlapsOnly() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Event("standup", at(2, 9), at(2, 10)));
+        tasks.add(new Event("review", at(2, 10), at(2, 12)));
+        tasks.add(new Todo("no time"));
+        tasks.add(new Event("workshop", at(1, 9), at(3, 17)));
+        assertEquals(List.of("standup", "review"), names(tasks.conflictsWith(3)));
+
+        tasks.add(new Event("lunch", at(2, 11), at(2, 13)));
+
+        assertEquals(List.of("workshop", "review"), names(tasks.conflictsWith(4)));
+        assertEquals(List.of("workshop"), names(tasks.conflictsWith(0)));
+        assertEquals(List.of("workshop", "standup", "review", "lunch"), names(tasks.conflicts()));
+    }
+
+    @Test
+    public void conflicts_afterRemove_treeKeptUpToDate() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Event("standup", at(2, 9), at(2, 10)));
+        tasks.add(new Event("workshop", at(1, 9), at(3, 17)));
+        assertEquals(2, tasks.conflicts().size());
+
+        tasks.remove(1);
+
+        assertEquals(List.of(), tasks.conflicts());
+        assertEquals(List.of(), tasks.conflictsWith(0));
+    }
+}
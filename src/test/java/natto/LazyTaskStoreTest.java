@@ -0,0 +1,97 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LazyTaskStoreTest {
+    @TempDir
+    Path dir;
+
+    private Path writeSnapshot(int count) throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("#journal 0");
+        for (int i = 0; i < count; i++) {
+            lines.add("T | 0 | task " + i);
+        }
+        Path file = dir.resolve("tasks.txt");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    public void get_manyPages_readsEveryTask() throws Exception {
+        int count = LazyTaskStore.PAGE_SIZE * (LazyTaskStore.MAX_CACHED_PAGES + 2) + 7;
+        LazyTaskStore store = new LazyTaskStore(writeSnapshot(count));
+
+        assertEquals(count, store.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("[T][ ] task " + i, store.get(i).toString());
+        }
+        store.close();
+    }
+
+    @Test
+    public void mark_pageEvicted_changeKept() throws Exception {
+        int count = LazyTaskStore.PAGE_SIZE * (LazyTaskStore.MAX_CACHED_PAGES + 2);
+        TaskList tasks = new TaskList(new LazyTaskStore(writeSnapshot(count)));
+
+        tasks.mark(3);
+        for (int i = 0; i < count; i++) {
+            tasks.get(i);
+        }
+        assertTrue(tasks.get(3).isDone());
+    }
+
+    @Test
+    public void addAndDelete_mixedWithSnapshot_keepsOrder() throws Exception {
+        TaskList tasks = new TaskList(new LazyTaskStore(writeSnapshot(3)));
+
+        tasks.add(new Todo("new"));
+        tasks.remove(1);
+        tasks.remove(0);
+
+        assertEquals("[[T][ ] task 2, [T][ ] new]", tasks.getAll().toString());
+    }
+
+    @Test
+    public void addMarkAndDelete_longSession_overlayStaysBounded() throws Exception {
+        TaskList tasks = new TaskList(new LazyTaskStore(writeSnapshot(100)));
+
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new Todo("added " + i));
+            tasks.mark(0);
+            tasks.remove(tasks.size() - 1);
+            tasks.remove(0);
+            tasks.add(new Todo("again " + i));
+        }
+
+        assertEquals(100, tasks.size());
+        assertEquals("[T][ ] again 999", tasks.get(99).toString());
+        assertTrue(((LazyTaskStore) tasks.store()).overlaySize() <= 102);
+    }
+
+    @Test
+    public void loadTasksLazily_journalReplayed_matchesEagerLoad() throws Exception {
+        String path = writeSnapshot(10).toString();
+        Storage storage = new Storage(path);
+        storage.loadTasks();
+        storage.appendMark(2);
+        storage.appendDelete(0);
+        storage.appendAdd(new Todo("journaled"));
+        storage.flush();
+
+        List<Task> eager = new Storage(path).loadTasks();
+        TaskList lazy = new Storage(path).loadTasksLazily();
+
+        assertEquals(eager.toString(), lazy.getAll().toString());
+    }
+}
@@ -0,0 +1,61 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ListPagingTest {
+    private TaskList listOf(int count) {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= count; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void parse_rangeAndPage_giveZeroBasedBounds() throws NattoException {
+        CommandRegistry registry = CommandRegistry.withBuiltIns();
+        TaskList tasks = listOf(250);
+
+        assertEquals(new Commands.ListTasks(false, 199, 250), registry.parse("list 200-400", tasks));
+        assertEquals(new Commands.ListTasks(false, 200, 250), registry.parse("list --page 3", tasks));
+        assertEquals("No such page. The list has 3 pages.",
+                assertThrows(NattoException.class, () -> registry.parse("list --page 4", tasks)).getMessage());
+        assertThrows(NattoException.class, () -> registry.parse("list 300-400", tasks));
+        assertThrows(NattoException.class, () -> registry.parse("list 5-2", tasks));
+    }
+
+    @Test
+    public void printListRange_showsOnlyThoseTasks() {
+        Ui ui = new Ui();
+        ui.printListRange(listOf(10).getAll(), 3, 5);
+
+        assertEquals("Here are tasks 4-5 of 10 in your list:\n\n4. [T][ ] task 4\n5. [T][ ] task 5",
+                ui.getLastOutput());
+    }
+
+    @Test
+    public void printList_longList_lastOutputCapped() {
+        Ui ui = new Ui();
+        ui.printList(listOf(Ui.LAST_OUTPUT_TASKS + 5).getAll());
+
+        assertTrue(ui.getLastOutput().endsWith("1000. [T][ ] task 1000\n"
+                + "... and 5 more. Use list A-B or list --page N to see them."));
+    }
+
+    @Test
+    public void writeList_writesNumberedLines() throws Exception {
+        StringWriter out = new StringWriter();
+        List<Task> tasks = listOf(3).getAll();
+
+        Ui.writeList(out, tasks, 1, 3);
+
+        assertEquals("2. [T][ ] task 2\n3. [T][ ] task 3", out.toString());
+    }
+}
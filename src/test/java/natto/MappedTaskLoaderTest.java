@@ -0,0 +1,93 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedTaskLoaderTest {
+    private static final String[] LINES = {
+        "T | 1 | read book",
+        "T | 0 | a | b",
+        "D | 0 | return book | 2019-06-06T00:00",
+        "D | 1 | pay rent | 2019-06-06T23:59:30",
+        "E | 0 | project meeting | 2019-08-06T14:00-2019-08-06T16:00",
+        "C | 0 | Bob | 9123 4567 | bob@example.com | ",
+        "  T | 0 | leading spaces handled by the fallback",
+        "T | 0 | caf\u00e9 \uD83D\uDE38",
+    };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void load_mixedLines_sameTasksAsLineParser() throws Exception {
+        Path file = dir.resolve("tasks.txt");
+        Files.writeString(file, "#journal 4\r\n" + String.join("\r\n", LINES), StandardCharsets.UTF_8);
+
+        List<Task> loaded = new ArrayList<>();
+        long seq = MappedTaskLoader.load(file, loaded);
+
+        List<Task> expected = new ArrayList<>();
+        for (String line : LINES) {
+            expected.add(Storage.loadTaskArray(line));
+        }
+        assertEquals(4, seq);
+        assertEquals(expected.toString(), loaded.toString());
+    }
+
+    @Test
+    public void load_smallWindows_linesSpanningWindowsKeptWhole() throws Exception {
+        Path file = dir.resolve("tasks.txt");
+        Files.writeString(file, String.join("\n", LINES) + "\n", StandardCharsets.UTF_8);
+
+        List<Task> loaded = new ArrayList<>();
+        MappedTaskLoader.load(file, loaded, 80, Long.MAX_VALUE);
+
+        assertEquals(LINES.length, loaded.size());
+        assertEquals(Storage.loadTaskArray(LINES[4]).toString(), loaded.get(4).toString());
+    }
+
+    @Test
+    public void load_parallelChunks_originalOrderKept() throws Exception {
+        Path file = dir.resolve("tasks.txt");
+        StringBuilder sb = new StringBuilder("#journal 2\n");
+        for (int i = 0; i < 10_000; i++) {
+            sb.append(LINES[i % LINES.length].replace("book", "book " + i)).append('\n');
+        }
+        Files.writeString(file, sb.toString(), StandardCharsets.UTF_8);
+
+        List<Task> sequential = new ArrayList<>();
+        MappedTaskLoader.load(file, sequential, MappedTaskLoader.MAX_WINDOW, Long.MAX_VALUE);
+        List<Task> parallel = new ArrayList<>();
+        long seq = MappedTaskLoader.load(file, parallel, 64 * 1024, 1);
+
+        assertEquals(2, seq);
+        assertEquals(10_000, parallel.size());
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    public void loadAndScan_fileLeftUnmapped_soSnapshotsCanReplaceIt() throws Exception {
+        Path maps = Path.of("/proc/self/maps");
+        if (!Files.isReadable(maps)) {
+            return;
+        }
+        Path file = dir.resolve("tasks.txt");
+        Files.writeString(file, "#journal 1\n" + String.join("\n", LINES) + "\n", StandardCharsets.UTF_8);
+
+        MappedTaskLoader.load(file, new ArrayList<>());
+        LazyTaskStore lazy = new LazyTaskStore(file);
+
+        assertFalse(Files.readString(maps).contains(file.toRealPath().toString()));
+        assertEquals(LINES.length, lazy.size());
+        lazy.close();
+    }
+}
@@ -1,10 +1,23 @@
 package natto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class StartTest {
+    @TempDir
+    Path dir;
+
     @Test
     public void constructor_noInput_setsGreetingAsLastOutput() {
         Natto natto = new Natto();
@@ -13,5 +26,68 @@ public class StartTest {
                 + "What can I do for you? \uD83D\uDE3AMeow~";
         assertEquals(expected, greeting);
     }
-}
 
+    @Test
+    public void getResponse_bye_reportsExitAndKeepsRunning() {
+        Natto natto = new Natto(dir.resolve("tasks.txt").toString());
+        natto.getResponse("todo read book");
+        assertFalse(natto.isExit());
+
+        natto.getResponse("bye");
+        assertTrue(natto.isExit());
+
+        assertTrue(natto.getResponse("list").contains("read book"));
+        assertFalse(natto.isExit());
+    }
+
+    @Test
+    public void run_inputEnds_journalClosedWithEveryChangeOnDisk() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        InputStream stdin = System.in;
+        System.setIn(new ByteArrayInputStream("todo a\ntodo b\n".getBytes(StandardCharsets.UTF_8)));
+        try {
+            Natto natto = new Natto(file);
+            natto.run();
+
+            assertEquals(2, Files.readAllLines(Path.of(file + ".journal.1")).size());
+            assertTrue(natto.getResponse("todo c").contains("Error saving tasks to file."));
+        } finally {
+            System.setIn(stdin);
+        }
+    }
+
+    @Test
+    public void constructor_mistypedTaskListMode_startsWithDefaultAndSaysSo() {
+        System.setProperty("natto.tasklist", "colunmar");
+        try {
+            Natto natto = new Natto(dir.resolve("tasks.txt").toString());
+
+            assertTrue(natto.getGreeting().endsWith("Ignoring -Dnatto.tasklist=colunmar, which is not one of: "
+                    + "array, tree, columnar, off-heap, lazy.\nUsing array instead."));
+            assertTrue(natto.getResponse("todo read book").contains("read book"));
+        } finally {
+            System.clearProperty("natto.tasklist");
+        }
+    }
+
+    @Test
+    public void constructor_unreadableDataFile_movesItAsideInsteadOfOverwriting() throws Exception {
+        Path data = dir.resolve("tasks.txt");
+        List<String> original = List.of("T | 0 | read book", "not a task");
+        Files.write(data, original, StandardCharsets.UTF_8);
+        Files.write(dir.resolve("tasks.txt.journal.1"), List.of("add | T | 0 | journaled"), StandardCharsets.UTF_8);
+
+        Natto natto = new Natto(data.toString());
+        assertTrue(natto.getGreeting().contains("moved to " + data + ".broken"));
+        natto.getResponse("todo fresh start");
+        natto.getResponse("bye");
+
+        assertEquals(original, Files.readAllLines(dir.resolve("tasks.txt.broken"), StandardCharsets.UTF_8));
+        assertEquals(List.of("add | T | 0 | journaled"),
+                Files.readAllLines(dir.resolve("tasks.txt.broken.journal.1"), StandardCharsets.UTF_8));
+        assertEquals(1, new Storage(data.toString()).loadTasks().size());
+
+        Files.write(data, original, StandardCharsets.UTF_8);
+        assertTrue(new Natto(data.toString()).getGreeting().contains("moved to " + data + ".broken-2"));
+    }
+}
@@ -0,0 +1,201 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StorageTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void journal_mutationsAfterSnapshot_replayedOnLoad() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file);
+        storage.saveTasks(List.of(new Todo("read book"), new Todo("borrow book")));
+
+        storage.appendAdd(new Deadline("return book", LocalDateTime.of(2019, 6, 6, 0, 0)));
+        storage.appendMark(0);
+        storage.appendDelete(1);
+        storage.flush();
+
+        List<Task> loaded = new Storage(file).loadTasks();
+
+        assertEquals(2, loaded.size());
+        assertEquals("[T][X] read book", loaded.get(0).toString());
+        assertEquals("[D][ ] return book (by: Jun 06 2019)", loaded.get(1).toString());
+    }
+
+    @Test
+    public void journal_tornLastRecord_ignored() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file);
+        storage.appendAdd(new Todo("a"));
+        storage.flush();
+        Files.writeString(Path.of(file + ".journal.1"), "mark | ", StandardOpenOption.APPEND);
+
+        List<Task> loaded = new Storage(file).loadTasks();
+
+        assertEquals(1, loaded.size());
+        assertFalse(loaded.get(0).isDone());
+    }
+
+    @Test
+    public void journal_tornLastRecordThatStillParses_notApplied() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file);
+        storage.appendAdd(new Todo("a"));
+        storage.flush();
+        Files.writeString(Path.of(file + ".journal.1"), "add | T | 0 | buy m", StandardOpenOption.APPEND);
+
+        List<Task> loaded = new Storage(file).loadTasks();
+
+        assertEquals(1, loaded.size());
+        assertEquals("[T][ ] a", loaded.get(0).toString());
+    }
+
+    @Test
+    public void journal_corruptedRecordWithLineEnd_loadFails() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file);
+        storage.appendAdd(new Todo("a"));
+        storage.flush();
+        Files.writeString(Path.of(file + ".journal.1"), "mark | x" + System.lineSeparator(),
+                StandardOpenOption.APPEND);
+
+        assertThrows(NattoException.class, () -> new Storage(file).loadTasks());
+    }
+
+    @Test
+    public void saveTasks_eventAndContact_roundTrip() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file);
+        Event event = new Event("meeting", LocalDateTime.of(2019, 8, 6, 14, 0), LocalDateTime.of(2019, 8, 6, 16, 0));
+        Contact contact = new Contact("Bob", "9123 4567", "bob@example.com", "");
+        storage.appendAdd(new Todo("a"));
+
+        storage.saveTasks(List.of(event, contact));
+        List<Task> loaded = storage.loadTasks();
+
+        assertEquals(2, loaded.size());
+        assertEquals(event.toString(), loaded.get(0).toString());
+        assertEquals(contact.toString(), loaded.get(1).toString());
+        assertTrue(Files.notExists(Path.of(file + ".journal.1")));
+    }
+
+    @Test
+    public void compaction_recordThresholdReached_foldsJournalIntoSnapshot() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file, Durability.BATCHED, SnapshotFormat.TEXT, 3, Long.MAX_VALUE);
+        storage.appendAdd(new Todo("a"));
+        storage.appendAdd(new Todo("b"));
+        storage.appendMark(1);
+
+        storage.awaitCompaction();
+        storage.appendAdd(new Todo("c"));
+        storage.flush();
+
+        assertTrue(Files.readString(Path.of(file)).startsWith("#journal 1"));
+        assertTrue(Files.notExists(Path.of(file + ".journal.1")));
+        List<Task> loaded = new Storage(file).loadTasks();
+        assertEquals(3, loaded.size());
+        assertEquals("[T][X] b", loaded.get(1).toString());
+    }
+
+    @Test
+    public void compaction_columnarList_snapshotReadIntoColumns() throws Exception {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            String file = dir.resolve("tasks-" + format).toString();
+            new Storage(file, Durability.BATCHED, format).saveTasks(List.of(new Todo("a"),
+                    new Event("meeting", LocalDateTime.of(2019, 8, 6, 14, 0), LocalDateTime.of(2019, 8, 6, 16, 0)),
+                    new Contact("Bob", "9123 4567", "bob@example.com", "NUS")));
+            Storage storage = new Storage(file, Durability.BATCHED, format, 2, Long.MAX_VALUE);
+            TaskList tasks = storage.loadTaskList(TaskListMode.OFF_HEAP);
+
+            tasks.add(new Todo("b"));
+            storage.appendAdd(tasks.get(3));
+            storage.appendMark(1);
+            storage.awaitCompaction();
+
+            assertTrue(Files.notExists(Path.of(file + ".journal.1")), format.toString());
+            TaskList loaded = new Storage(file).loadTaskList(TaskListMode.COLUMNAR);
+            assertEquals("[[T][ ] a, [E][X] meeting (from: Aug 06 2019 14:00 to: 16:00), "
+                    + "[C][ ] Bob (p: 9123 4567, e: bob@example.com, a: NUS), [T][ ] b]", loaded.getAll().toString());
+        }
+    }
+
+    @Test
+    public void compaction_crashBeforeJournalDeleted_recordsNotReplayedTwice() throws Exception {
+        Path file = dir.resolve("tasks.txt");
+        Files.writeString(file, "#journal 1\nT | 0 | a\n");
+        Files.writeString(Path.of(file + ".journal.1"), "add | T | 0 | a\n");
+        Files.writeString(Path.of(file + ".journal.2"), "add | T | 0 | b\n");
+
+        List<Task> loaded = new Storage(file.toString()).loadTasks();
+
+        assertEquals(2, loaded.size());
+        assertEquals("[T][ ] b", loaded.get(1).toString());
+    }
+
+    @Test
+    public void append_perCommandDurability_recordOnDiskWhenCallReturns() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file, Durability.PER_COMMAND, SnapshotFormat.TEXT);
+
+        storage.appendAdd(new Todo("a"));
+
+        assertEquals("add | T | 0 | a", Files.readString(Path.of(file + ".journal.1")).trim());
+    }
+
+    @Test
+    public void append_nonAsciiRecord_pendingBytesMatchFileSize() throws Exception {
+        Path file = dir.resolve("tasks.txt");
+        Journal journal = new Journal(file, Durability.NONE);
+        journal.open(0);
+
+        journal.append("add | T | 0 | \u732B\u306E\u3054\u306F\u3093 \uD83D\uDE38");
+        journal.flush();
+
+        assertEquals(Files.size(Path.of(file + ".journal.1")), journal.getPendingBytes());
+    }
+
+    @Test
+    public void flush_manyQueuedRecords_allWrittenInOrder() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file, Durability.NONE, SnapshotFormat.TEXT);
+        for (int i = 0; i < 5000; i++) {
+            storage.appendAdd(new Todo("task " + i));
+        }
+
+        storage.flush();
+        List<Task> loaded = new Storage(file).loadTasks();
+
+        assertEquals(5000, loaded.size());
+        assertEquals("[T][ ] task 4999", loaded.get(4999).toString());
+    }
+
+    @Test
+    public void close_batchedDurability_queuedRecordsOnDiskAndLaterAppendsRefused() throws Exception {
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file, Durability.BATCHED, SnapshotFormat.TEXT);
+        for (int i = 0; i < 1000; i++) {
+            storage.appendAdd(new Todo("task " + i));
+        }
+
+        storage.close();
+
+        assertEquals(1000, Files.readAllLines(Path.of(file + ".journal.1")).size());
+        assertThrows(NattoException.class, () -> storage.appendAdd(new Todo("too late")));
+        assertEquals(1000, new Storage(file).loadTasks().size());
+    }
+}
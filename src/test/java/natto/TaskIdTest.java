@@ -0,0 +1,79 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TaskIdTest {
+    @TempDir
+    Path dir;
+
+    private TaskList sampleList() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("a"));
+        tasks.add(new Todo("b"));
+        tasks.add(new Todo("c"));
+        return tasks;
+    }
+
+    @Test
+    public void getId_afterDelete_idsUnchanged() {
+        TaskList tasks = sampleList();
+
+        tasks.remove(0);
+        tasks.add(new Todo("d"));
+
+        assertEquals(2, tasks.getId(0));
+        assertEquals(4, tasks.getId(2));
+        assertEquals(1, tasks.indexOfId(3));
+        assertEquals(-1, tasks.indexOfId(1));
+    }
+
+    @Test
+    public void parseTaskIndex_idOrPosition_resolvesToIndex() throws Exception {
+        TaskList tasks = sampleList();
+        tasks.remove(0);
+
+        assertEquals(1, Parser.parseTaskIndex("mark #3", tasks));
+        assertEquals(1, Parser.parseTaskIndex("mark 2", tasks));
+        assertEquals("No task has ID #1.",
+                assertThrows(NattoException.class, () -> Parser.parseTaskIndex("delete #1", tasks)).getMessage());
+        assertThrows(NattoException.class, () -> Parser.parseTaskIndex("delete #x", tasks));
+    }
+
+    @Test
+    public void loadTaskList_afterDeleteAndCompaction_idsKept() throws Exception {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            String file = dir.resolve("tasks-" + format).toString();
+            Storage storage = new Storage(file, Durability.BATCHED, format, 1, Long.MAX_VALUE);
+            TaskList tasks = sampleList();
+            tasks.remove(1);
+            storage.saveTasks(tasks);
+            tasks.add(new Todo("d"));
+            storage.appendAdd(tasks.get(2));
+            storage.awaitCompaction();
+
+            for (TaskListMode mode : TaskListMode.values()) {
+                TaskList loaded = new Storage(file).loadTaskList(mode);
+                loaded.add(new Todo("e"));
+
+                assertEquals(List.of(1L, 3L, 4L, 5L), ids(loaded), format + " " + mode);
+                assertEquals(1, loaded.indexOfId(3));
+            }
+        }
+    }
+
+    private static List<Long> ids(TaskList tasks) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            ids.add(tasks.getId(i));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,110 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TaskTransferTest {
+    @TempDir
+    Path dir;
+
+    private TaskList sampleList() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("say \"hi\", then leave"));
+        Deadline deadline = new Deadline("return book", LocalDateTime.of(2026, 3, 10, 18, 0));
+        deadline.mark();
+        tasks.add(deadline);
+        tasks.add(new Event("caf\u00e9 talk", LocalDateTime.of(2026, 3, 11, 14, 0),
+                LocalDateTime.of(2026, 3, 11, 16, 0)));
+        tasks.add(new Contact("Jane Tan", "91234567", "jane@example.com", "12 Kent Ridge Road"));
+        return tasks;
+    }
+
+    private static List<String> render(TaskList tasks) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            lines.add(tasks.get(i).toString());
+        }
+        return lines;
+    }
+
+    @Test
+    public void exportThenImport_bothFormats_sameTasks() throws Exception {
+        TaskList original = sampleList();
+        for (String name : List.of("tasks.csv", "tasks.jsonl")) {
+            Path file = dir.resolve(name);
+            ExchangeFormat format = ExchangeFormat.of(file);
+            assertEquals(4, TaskTransfer.exportTasks(original, format, file, n -> { }));
+
+            TaskList imported = new TaskList();
+            assertEquals(4, TaskTransfer.importTasks(file, format, imported, n -> { }));
+            assertEquals(render(original), render(imported));
+        }
+    }
+
+    @Test
+    public void importTasks_manyChunks_keepsFileOrder() throws Exception {
+        Path file = dir.resolve("many.jsonl");
+        List<String> lines = new ArrayList<>();
+        int count = TaskTransfer.CHUNK_LINES * 5 + 17;
+        for (int i = 0; i < count; i++) {
+            lines.add("{\"type\":\"T\",\"done\":" + (i % 2 == 0) + ",\"name\":\"task " + i + "\"}");
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        TaskList tasks = new TaskList();
+        List<Long> progress = new ArrayList<>();
+        TaskTransfer.importTasks(file, ExchangeFormat.JSONL, tasks, progress::add);
+
+        assertEquals(count, tasks.size());
+        for (int i = 0; i < count; i += 997) {
+            assertEquals("[T][" + (i % 2 == 0 ? "X" : " ") + "] task " + i, tasks.get(i).toString());
+        }
+        assertTrue(progress.isEmpty());
+    }
+
+    @Test
+    public void importCommand_invalidLine_nothingKept() throws Exception {
+        Path file = dir.resolve("bad.csv");
+        Files.write(file, List.of(ExchangeFormat.CSV.header(), "T,0,fine", "D,0,no date"), StandardCharsets.UTF_8);
+        TaskList tasks = sampleList();
+        Storage storage = new Storage(dir.resolve("data.txt").toString());
+
+        NattoException e = assertThrows(NattoException.class, () ->
+                CommandRegistry.withBuiltIns().parse("import " + file, tasks).execute(tasks, new Ui(), storage));
+
+        assertTrue(e.getMessage().startsWith("Line 3: Missing by"));
+        assertEquals(4, tasks.size());
+        assertTrue(new Storage(dir.resolve("data.txt").toString()).loadTasks().isEmpty());
+    }
+
+    @Test
+    public void importCommand_lineBreakInName_survivesRestart() throws Exception {
+        Path file = dir.resolve("breaks.jsonl");
+        Files.write(file, List.of("{\"type\":\"T\",\"name\":\"line1\\nline2\"}",
+                "{\"type\":\"T\",\"name\":\"after\"}"), StandardCharsets.UTF_8);
+        String data = dir.resolve("data.txt").toString();
+        Natto natto = new Natto(data);
+        natto.getResponse("import " + file);
+        natto.getResponse("todo journaled");
+        natto.getResponse("bye");
+
+        TaskList reloaded = new TaskList(new Storage(data).loadTasks());
+        assertEquals(List.of("[T][ ] line1 line2", "[T][ ] after", "[T][ ] journaled"), render(reloaded));
+    }
+
+    @Test
+    public void of_unknownExtension_throwsNattoException() {
+        assertThrows(NattoException.class, () -> ExchangeFormat.of(dir.resolve("tasks.xml")));
+    }
+}
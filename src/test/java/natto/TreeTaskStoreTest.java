@@ -0,0 +1,54 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TreeTaskStoreTest {
+    @Test
+    public void randomOperations_sameAsArrayStore() {
+        Random random = new Random(3);
+        List<Task> loaded = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            loaded.add(new Todo("loaded " + i));
+        }
+        TaskStore tree = new TreeTaskStore(loaded);
+        TaskStore array = new ArrayTaskStore(loaded);
+
+        for (int op = 0; op < 5000; op++) {
+            int choice = random.nextInt(3);
+            if (choice == 0 || array.size() == 0) {
+                Todo todo = new Todo("added " + op);
+                assertEquals(array.add(todo), tree.add(todo));
+            } else if (choice == 1) {
+                int index = random.nextInt(array.size());
+                assertEquals(array.remove(index), tree.remove(index));
+            } else {
+                int index = random.nextInt(array.size());
+                assertEquals(array.get(index), tree.get(index));
+                assertEquals(array.keyAt(index), tree.keyAt(index));
+                assertEquals(index, tree.indexOfKey(tree.keyAt(index)));
+            }
+        }
+        assertEquals(array.size(), tree.size());
+        assertEquals(new TaskStoreView(array), new TaskStoreView(tree));
+        assertEquals(-1, tree.indexOfKey(0));
+    }
+
+    @Test
+    public void taskList_treeMode_idsAndIndexesWork() {
+        TaskList tasks = new TaskList(List.of(new Todo("read book"), new Todo("buy milk")), TaskListMode.TREE);
+        tasks.add(new Todo("return book"));
+
+        tasks.remove(0);
+        tasks.mark(1);
+
+        assertEquals("[[T][ ] buy milk, [T][X] return book]", tasks.getAll().toString());
+        assertEquals(3, tasks.getId(1));
+        assertEquals("[[T][X] return book]", tasks.find("book").toString());
+    }
+}
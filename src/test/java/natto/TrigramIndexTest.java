@@ -0,0 +1,69 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexTest {
+    private static final String[] WORDS = {"read", "Book", "buy", "MILK", "caf\u00e9", "report", "re", "ok"};
+
+    private static List<Task> scan(TaskList tasks, String keyword) {
+        return tasks.getAll().stream()
+                .filter(t -> t.getName().toLowerCase().contains(keyword.toLowerCase()))
+                .toList();
+    }
+
+    @Test
+    public void find_randomNames_sameAsScan() {
+        Random random = new Random(7);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 2000; i++) {
+            tasks.add(new Todo(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + i));
+        }
+
+        for (String keyword : new String[] {"r", "ok", "BOOK", "k r", "milk1", "\u00c9 r", "report 1", "zzz"}) {
+            assertEquals(scan(tasks, keyword), tasks.find(keyword), keyword);
+        }
+    }
+
+    @Test
+    public void find_afterAddAndRemove_indexKeptUpToDate() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("return book"));
+        assertEquals(2, tasks.find("book").size());
+
+        tasks.remove(0);
+        tasks.add(new Deadline("Bookshelf", LocalDateTime.of(2026, 1, 1, 0, 0)));
+
+        assertEquals("[[T][ ] return book, [D][ ] Bookshelf (by: Jan 01 2026)]", tasks.find("book").toString());
+        assertEquals("[]", tasks.find("read").toString());
+    }
+
+    @Test
+    public void find_manyRemovalsFromCommonTrigrams_sameAsScan() {
+        Random random = new Random(11);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 3000; i++) {
+            tasks.add(new Todo("the " + WORDS[random.nextInt(WORDS.length)] + i));
+        }
+        tasks.find("the");
+
+        for (int round = 0; round < 2500; round++) {
+            tasks.remove(random.nextInt(tasks.size()));
+            if (round % 3 == 0) {
+                tasks.add(new Todo("the " + WORDS[random.nextInt(WORDS.length)] + " again " + round));
+            }
+            if (round % 250 == 0) {
+                for (String keyword : new String[] {"the", "book", "again", "milk1", "the re"}) {
+                    assertEquals(scan(tasks, keyword), tasks.find(keyword), keyword);
+                }
+            }
+        }
+        assertEquals(scan(tasks, "the"), tasks.find("the"));
+    }
+}
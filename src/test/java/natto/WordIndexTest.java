@@ -0,0 +1,94 @@
+package natto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class WordIndexTest {
+    private TaskList sampleList() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("Return the BOOK, then read"));
+        tasks.add(new Todo("buy milk"));
+        tasks.add(new Todo("bookshelf"));
+        return tasks;
+    }
+
+    @Test
+    public void search_allWords_intersectsInListOrder() {
+        TaskList tasks = sampleList();
+
+        assertEquals("[[T][ ] read book, [T][ ] Return the BOOK, then read]",
+                tasks.search(List.of("book", "read"), true).toString());
+        assertEquals("[]", tasks.search(List.of("book", "milk"), true).toString());
+    }
+
+    @Test
+    public void search_anyWord_mergesInListOrder() {
+        TaskList tasks = sampleList();
+
+        assertEquals("[[T][ ] read book, [T][ ] Return the BOOK, then read, [T][ ] buy milk]",
+                tasks.search(List.of("milk", "book"), false).toString());
+    }
+
+    @Test
+    public void search_afterAddAndRemove_indexKeptUpToDate() {
+        TaskList tasks = sampleList();
+        tasks.search(List.of("book"), true);
+
+        tasks.remove(0);
+        tasks.add(new Todo("book club"));
+
+        assertEquals("[[T][ ] Return the BOOK, then read, [T][ ] book club]",
+                tasks.search(List.of("book"), true).toString());
+        assertEquals("[]", tasks.search(List.of("unknown"), false).toString());
+    }
+
+    @Test
+    public void matchAllAndAny_manyRemovals_sameAsScan() {
+        String[] words = {"the", "book", "milk", "read"};
+        Random random = new Random(13);
+        WordIndex index = new WordIndex();
+        Map<Long, String> names = new TreeMap<>();
+        for (long key = 1; key <= 2000; key++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            names.put(key, name);
+            index.add(key, name);
+        }
+        List<Long> keys = new ArrayList<>(names.keySet());
+        Collections.shuffle(keys, random);
+
+        for (long key : keys.subList(0, 1500)) {
+            index.remove(key, names.remove(key));
+        }
+
+        for (String word : words) {
+            long[] expected = names.entrySet().stream()
+                    .filter(e -> WordIndex.tokenize(e.getValue()).contains(word))
+                    .mapToLong(Map.Entry::getKey).toArray();
+            assertArrayEquals(expected, index.matchAll(List.of(word)), word);
+            assertArrayEquals(expected, index.matchAny(List.of(word, "unknown")), word);
+        }
+        assertArrayEquals(names.keySet().stream().mapToLong(Long::longValue).toArray(),
+                index.matchAny(List.of(words)));
+    }
+
+    @Test
+    public void parseSearch_anyMarker_strippedFromWords() throws Exception {
+        String input = "search crossing  stripes /any";
+
+        assertEquals(List.of("crossing", "stripes"), Parser.parseSearch(input));
+        assertTrue(Parser.isSearchAny(input));
+        assertFalse(Parser.isSearchAny("search crossing stripes"));
+    }
+}
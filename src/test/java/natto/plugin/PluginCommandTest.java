@@ -0,0 +1,61 @@
+package natto.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import natto.CommandRegistry;
+import natto.CommandTokenizer;
+import natto.NattoException;
+import natto.Storage;
+import natto.Task;
+import natto.TaskList;
+import natto.Todo;
+import natto.Ui;
+
+/**
+ * Checks that a command can be written outside the {@code natto} package, as a plugin would be.
+ */
+public class PluginCommandTest {
+    @TempDir
+    Path dir;
+
+    /** Adds a copy of the task at the given position. */
+    private static void registerCopy(CommandRegistry registry) {
+        registry.register("copy", (tokens, tasks) -> {
+            if (tokens.argCount() != 1) {
+                throw new NattoException("Usage: copy <position>");
+            }
+            int index = Integer.parseInt(tokens.arg(0)) - 1;
+            return (list, ui, storage) -> {
+                Task copy = new Todo(list.get(index).getName());
+                list.add(copy);
+                storage.appendAdd(copy);
+                ui.printAdd(copy, list.getId(list.size() - 1), list.size());
+            };
+        });
+    }
+
+    @Test
+    public void register_commandInAnotherPackage_parsedRunAndSaved() throws NattoException {
+        CommandRegistry registry = CommandRegistry.withBuiltIns();
+        registerCopy(registry);
+        String file = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(file);
+        TaskList tasks = new TaskList();
+        Ui ui = new Ui();
+
+        registry.parse("todo read book", tasks).execute(tasks, ui, storage);
+        registry.parse("copy 1", tasks).execute(tasks, ui, storage);
+        storage.flush();
+
+        assertEquals("[T][ ] read book", new Storage(file).loadTasks().get(1).toString());
+        assertEquals("Usage: copy <position>",
+                assertThrows(NattoException.class, () -> registry.parse("copy", tasks)).getMessage());
+        assertEquals("1", new CommandTokenizer("copy 1").arg(0));
+    }
+}
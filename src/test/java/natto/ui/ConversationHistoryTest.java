@@ -0,0 +1,61 @@
+package natto.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConversationHistoryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void add_overCap_spillsOldestQuarterToFile() throws IOException {
+        List<Message> shown = new ArrayList<>();
+        Path spill = dir.resolve("data").resolve("conversation.txt");
+        ConversationHistory history = new ConversationHistory(shown, 8, spill);
+        for (int i = 0; i < 4; i++) {
+            history.add(new Message("q" + i, true), new Message("a" + i, false));
+        }
+        assertEquals(8, shown.size());
+        assertEquals(0, history.spilledCount());
+
+        history.add(new Message("q4", true), new Message("a4", false));
+        assertEquals(6, shown.size());
+        assertEquals("q2", shown.get(0).text());
+        assertEquals(List.of("You: q0", "Natto: a0", "You: q1", "Natto: a1"),
+                Files.readAllLines(spill, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void add_manyExchanges_keepsListWithinCap() throws IOException {
+        List<Message> shown = new ArrayList<>();
+        Path spill = dir.resolve("conversation.txt");
+        Files.writeString(spill, "left over from the last session\n");
+        ConversationHistory history = new ConversationHistory(shown, 100, spill);
+        for (int i = 0; i < 10_000; i++) {
+            history.add(new Message("q" + i, true), new Message("a" + i, false));
+            assertTrue(shown.size() <= 100);
+        }
+        List<String> lines = Files.readAllLines(spill, StandardCharsets.UTF_8);
+        assertEquals(history.spilledCount(), lines.size());
+        assertEquals(20_000, history.spilledCount() + shown.size());
+        assertEquals("You: q0", lines.get(0));
+        assertEquals(new Message("a9999", false), shown.get(shown.size() - 1));
+    }
+
+    @Test
+    public void constructor_capBelowOne_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConversationHistory(new ArrayList<>(), 0, dir.resolve("c.txt")));
+    }
+}
@@ -0,0 +1,98 @@
+package natto.ui;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.HBox;
+import javafx.scene.shape.Circle;
+
+/**
+ * Compares the cost of building a dialog box by parsing FXML, as every message used to, with
+ * building it in code. Needs a display; run its {@code main} with JavaFX on the class path.
+ */
+public class DialogBoxBenchmark {
+    private static final int WARMUP_BOXES = 2_000;
+    private static final int MEASURED_BOXES = 10_000;
+    /** The FXML each dialog box used to be loaded from. */
+    private static final String DIALOG_BOX_FXML = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <?import javafx.geometry.Insets?>
+            <?import javafx.scene.control.Label?>
+            <?import javafx.scene.image.ImageView?>
+            <?import javafx.scene.layout.HBox?>
+            <HBox alignment="TOP_RIGHT" maxHeight="1.7976931348623157E308" maxWidth="1.7976931348623157E308"
+                  prefWidth="400.0" stylesheets="@../css/dialog-box.css"
+                  xmlns="http://javafx.com/javafx/17" xmlns:fx="http://javafx.com/fxml/1">
+                <children>
+                    <Label fx:id="dialog" text="Label" wrapText="true" minHeight="-Infinity"/>
+                    <ImageView fx:id="displayPicture" fitHeight="99.0" fitWidth="99.0" pickOnBounds="true"
+                               preserveRatio="true" />
+                </children>
+                <padding>
+                    <Insets bottom="15.0" left="5.0" right="5.0" top="15.0" />
+                </padding>
+            </HBox>
+            """;
+
+    /**
+     * Prints the average time to build one dialog box each way.
+     *
+     * @param args Not used.
+     * @throws InterruptedException If interrupted while waiting for the JavaFX thread.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.startup(() -> {
+            try {
+                Image picture = new WritableImage(200, 200);
+                measure("FXML per dialog", () -> loadFromFxml("Hello there", picture));
+                measure("built in code", () -> DialogBox.getUserDialog("Hello there", picture));
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+        Platform.exit();
+    }
+
+    private static void measure(String name, Supplier<Node> build) {
+        for (int i = 0; i < WARMUP_BOXES; i++) {
+            build.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_BOXES; i++) {
+            build.get();
+        }
+        long perBox = (System.nanoTime() - start) / MEASURED_BOXES;
+        System.out.printf("%-16s %,8d ns per dialog box%n", name, perBox);
+    }
+
+    private static Node loadFromFxml(String text, Image picture) {
+        FXMLLoader loader = new FXMLLoader(DialogBoxBenchmark.class.getResource("/view/MainWindow.fxml"));
+        try {
+            HBox box = loader.load(new ByteArrayInputStream(DIALOG_BOX_FXML.getBytes(StandardCharsets.UTF_8)));
+            Label dialog = (Label) loader.getNamespace().get("dialog");
+            ImageView displayPicture = (ImageView) loader.getNamespace().get("displayPicture");
+            dialog.setText(text);
+            displayPicture.setImage(picture);
+            displayPicture.setFitWidth(70);
+            displayPicture.setFitHeight(70);
+            displayPicture.setPreserveRatio(false);
+            displayPicture.setClip(new Circle(35, 35, 35));
+            return box;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -12,8 +12,9 @@ then
     rm ACTUAL.TXT
 fi
 
-# compile the code into the bin folder, terminates if error occurred
-if ! javac -cp ../src/main/java -Xlint:none -d ../bin $(find ../src/main/java -name "*.java")
+# compile the headless core (everything but the JavaFX code in natto/ui) into the bin folder,
+# terminates if error occurred
+if ! javac -cp ../src/main/java -Xlint:none -d ../bin $(find ../src/main/java -name "*.java" -not -path "*/natto/ui/*")
 then
     echo "********** BUILD FAILURE **********"
     exit 1